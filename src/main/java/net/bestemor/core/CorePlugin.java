@@ -3,31 +3,72 @@ package net.bestemor.core;
 import net.bestemor.core.config.ConfigManager;
 import net.bestemor.core.config.VersionUtils;
 import net.bestemor.core.listener.ChatListener;
+import net.bestemor.core.menu.CountdownTicker;
 import net.bestemor.core.menu.MenuListener;
+import net.bestemor.core.menu.MenuScheduler;
+import net.bestemor.core.metrics.Metrics;
+import net.bestemor.core.metrics.Watchdog;
+import net.bestemor.core.utils.PermissionCache;
+import net.bestemor.core.utils.PhaseProfiler;
+import net.bestemor.core.utils.SecondScheduler;
 import net.bestemor.core.utils.UpdateChecker;
 import org.apache.commons.io.FileUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class CorePlugin extends JavaPlugin {
 
     private static MenuListener menuListener;
+    private static MenuScheduler menuScheduler;
+    private static CountdownTicker countdownTicker;
+    private static ExecutorService workerPool;
+    private static PermissionCache permissionCache;
     private ChatListener chatListener;
+    private PhaseProfiler enableProfile;
+    private PhaseProfiler reloadProfile;
+    private BukkitTask metricsExport;
 
     @Override
     public void onEnable() {
+        PhaseProfiler profile = new PhaseProfiler("Enabled " + getName() + " in");
+        this.enableProfile = profile;
+        profile.start("core");
 
         menuListener = new MenuListener();
         getServer().getPluginManager().registerEvents(menuListener, this);
 
+        permissionCache = new PermissionCache();
+        getServer().getPluginManager().registerEvents(permissionCache, this);
+
+        menuScheduler = new MenuScheduler(this);
+        menuScheduler.start();
+        countdownTicker = new CountdownTicker(this);
+        countdownTicker.start();
+
+        AtomicInteger workerCount = new AtomicInteger();
+        int workers = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, getName() + "-Worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        profile.start("mappings");
         ConfigManager.loadMappings(getResource("config_mappings.yml"));
 
+        profile.start("config");
+
         // Get version dependent config
         InputStream stream = getResource( "config_" + VersionUtils.getMCVersion() + ".yml");
         String fileName = "config_" + VersionUtils.getMCVersion();
@@ -54,25 +95,41 @@ public abstract class CorePlugin extends JavaPlugin {
         ConfigManager.setConfig(getConfig());
         getConfig().options().copyDefaults(true);
 
+        applyMetricsSettings();
+        if (getConfig().getBoolean("watchdog.enabled")) {
+            Watchdog.start(this, getConfig().getLong("watchdog.budget_ms", 20), TimeUnit.MILLISECONDS);
+            Bukkit.getScheduler().runTask(this, Watchdog::enableIOChecks);
+        }
+
         if (getLanguageFolder() != null) {
+            profile.start("languages");
             ConfigManager.setLanguagesFolder(new File(getDataFolder(), getLanguageFolder()));
             ConfigManager.loadLanguages(this, getLanguages());
         }
 
+        profile.start("config update");
         boolean enableUpdate = !getConfig().contains("auto_update") || getConfig().getBoolean("auto_update");
         if (enableAutoUpdate() && enableUpdate) {
             ConfigManager.updateConfig(this, fileName);
         }
 
         if (getSpigotResourceID() != 0) {
+            profile.start("update check");
             checkVersion();
         }
 
+        profile.start("chat listener");
         this.chatListener = new ChatListener(this);
         getServer().getPluginManager().registerEvents(chatListener, this);
 
+        profile.start("plugin");
         onPluginEnable();
         super.onEnable();
+        profile.end();
+
+        if (isProfilingEnabled()) {
+            getLogger().info(profile.format());
+        }
     }
 
     @Override
@@ -81,6 +138,16 @@ public abstract class CorePlugin extends JavaPlugin {
         if (menuListener != null) {
             menuListener.closeAll();
         }
+        if (menuScheduler != null) {
+            menuScheduler.stop();
+        }
+        if (countdownTicker != null) {
+            countdownTicker.stop();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+        Watchdog.stop();
         Bukkit.getScheduler().cancelTasks(this);
         onPluginDisable();
     }
@@ -123,23 +190,93 @@ public abstract class CorePlugin extends JavaPlugin {
         return 0;
     }
 
+    /** Returns true if enable and reload phase timings should be logged. Enabled by the "debug"
+     * config option or the bestemorcore.profile system property */
+    protected boolean isProfilingEnabled() {
+        return getConfig().getBoolean("debug") || Boolean.getBoolean("bestemorcore.profile");
+    }
+
     @Override
     public void reloadConfig() {
+        PhaseProfiler profile = new PhaseProfiler("Reloaded " + getName() + " in");
+        profile.start("config");
         super.reloadConfig();
 
         ConfigManager.setConfig(getConfig());
 
         if (getLanguageFolder() != null) {
+            profile.start("languages");
             ConfigManager.setLanguagesFolder(new File(getDataFolder(), getLanguageFolder()));
             ConfigManager.loadLanguages(this, getLanguages());
         }
+        profile.start("cache");
         ConfigManager.clearCache();
+        if (isEnabled()) {
+            applyMetricsSettings();
+        }
+        profile.end();
+
+        this.reloadProfile = profile;
+        if (isProfilingEnabled()) {
+            getLogger().info(profile.format());
+        }
+    }
+
+    /** Enables or disables metrics from config, restarting the periodic export */
+    private void applyMetricsSettings() {
+        if (metricsExport != null) {
+            metricsExport.cancel();
+            metricsExport = null;
+        }
+        Metrics.setEnabled(getConfig().getBoolean("metrics.enabled"));
+        if (Metrics.isEnabled()) {
+            long interval = getConfig().getLong("metrics.export_interval", 60);
+            if (interval > 0) {
+                metricsExport = Metrics.startExport(this, interval * 20);
+            }
+        }
+    }
+
+    /** @return Phase timings of the last time the plugin was enabled */
+    @SuppressWarnings("unused")
+    public PhaseProfiler getEnableProfile() {
+        return enableProfile;
+    }
+
+    /** @return Phase timings of the last time the config was loaded or reloaded, or null if it has not been loaded */
+    @SuppressWarnings("unused")
+    public PhaseProfiler getReloadProfile() {
+        return reloadProfile;
     }
 
     public static MenuListener getMenuListener() {
         return menuListener;
     }
 
+    public static MenuScheduler getMenuScheduler() {
+        return menuScheduler;
+    }
+
+    public static CountdownTicker getCountdownTicker() {
+        return countdownTicker;
+    }
+
+    /** @return Scheduler for second-resolution timeouts, sharing the wheel of the {@link CountdownTicker},
+     * or null if the core has not been enabled */
+    public static SecondScheduler getSecondScheduler() {
+        return countdownTicker;
+    }
+
+    /** @return Cache of permission checks, shared by commands and menus */
+    public static PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    /** @return Pool of worker threads for blocking work, such as asynchronous commands */
+    public static ExecutorService getWorkerPool() {
+        return workerPool;
+    }
+
     @SuppressWarnings("unused")
     public ChatListener getChatListener() {
         return chatListener;
@@ -0,0 +1,80 @@
+package net.bestemor.core.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Completion provider backed by a future. When completed asynchronously the future is awaited,
+ * while synchronous completion never blocks: it starts a request in the background and answers
+ * with the last known result, filtered by the current prefix.
+ */
+class AsyncCompletions implements CompletionProvider {
+
+    private final BiFunction<CommandSender, String, CompletableFuture<List<String>>> completer;
+
+    private volatile Result last;
+    private volatile CompletableFuture<List<String>> pending;
+
+    AsyncCompletions(BiFunction<CommandSender, String, CompletableFuture<List<String>>> completer) {
+        this.completer = completer;
+    }
+
+    @Override
+    public List<String> complete(CommandSender sender, String prefix) {
+        CompletableFuture<List<String>> pending = this.pending;
+        if (pending == null || pending.isDone()) {
+            pending = completeAsync(sender, prefix);
+            this.pending = pending;
+        }
+
+        Result result = last;
+        if (result == null || !result.prefix.regionMatches(true, 0, prefix, 0, result.prefix.length())
+                || result.prefix.length() > prefix.length()) {
+            return new ArrayList<>();
+        }
+        List<String> filtered = new ArrayList<>();
+        for (String value : result.values) {
+            if (value.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                filtered.add(value);
+            }
+        }
+        return filtered;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> completeAsync(CommandSender sender, String prefix) {
+        CompletableFuture<List<String>> future;
+        try {
+            future = completer.apply(sender, prefix);
+        } catch (Throwable t) {
+            CompletableFuture<List<String>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            return failed;
+        }
+        return future.thenApply(values -> {
+            List<String> copy = values == null ? Collections.emptyList() : new ArrayList<>(values);
+            last = new Result(prefix, copy);
+            return new ArrayList<>(copy);
+        });
+    }
+
+    private static class Result {
+        private final String prefix;
+        private final List<String> values;
+
+        private Result(String prefix, List<String> values) {
+            this.prefix = prefix;
+            this.values = values;
+        }
+    }
+}
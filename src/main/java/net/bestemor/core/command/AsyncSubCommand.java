@@ -0,0 +1,48 @@
+package net.bestemor.core.command;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Subcommand doing its work off the main thread, such as I/O or lookups. The result is
+ * computed on the core worker pool, then handed to the main thread if the sender is still online.
+ * @param <T> Type of the computed result
+ */
+@SuppressWarnings("unused")
+public abstract class AsyncSubCommand<T> implements ISubCommand {
+
+    private final Plugin plugin = JavaPlugin.getProvidingPlugin(AsyncSubCommand.class);
+
+    /** Computes the result off the main thread. Must not modify server state
+     * @param sender Sender running the command
+     * @param args Arguments of the command
+     * @return Result passed to {@link #complete(CommandSender, String[], Object)} */
+    protected abstract T compute(CommandSender sender, String[] args);
+
+    /** Handles the result on the main thread. Not called if the sender has left
+     * @param sender Sender running the command
+     * @param args Arguments of the command
+     * @param result Result returned by {@link #compute(CommandSender, String[])} */
+    protected abstract void complete(CommandSender sender, String[] args, T result);
+
+    @Override
+    public final void run(CommandSender sender, String[] args) {
+        T result = compute(sender, args);
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (!(sender instanceof Player) || ((Player) sender).isOnline()) {
+                complete(sender, args, result);
+            }
+        });
+    }
+
+    @Override
+    public final ExecutionMode getExecutionMode() {
+        return ExecutionMode.ASYNC;
+    }
+}
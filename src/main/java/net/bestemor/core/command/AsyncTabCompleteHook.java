@@ -0,0 +1,111 @@
+package net.bestemor.core.command;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers tab completions of a {@link CommandModule} from Paper's asynchronous tab complete event,
+ * which is looked up by reflection as it does not exist in the Spigot API. Completions not ready within
+ * the timeout, completions of subcommands without nested nodes, and all completions not provided by
+ * {@link CompletionProvider#async}, are left to the synchronous {@link org.bukkit.command.TabCompleter}
+ * on the main thread.
+ */
+final class AsyncTabCompleteHook implements Listener, EventExecutor {
+
+    private static final String EVENT_CLASS = "com.destroystokyo.paper.event.server.AsyncTabCompleteEvent";
+
+    private final JavaPlugin plugin;
+    private final PluginCommand command;
+    private final CommandModule module;
+    private final long timeout;
+
+    private final Class<?> eventClass;
+    private final Method getSender;
+    private final Method getBuffer;
+    private final Method isCommand;
+    private final Method isHandled;
+    private final Method setHandled;
+    private final Method setCompletions;
+
+    private AsyncTabCompleteHook(JavaPlugin plugin, PluginCommand command, CommandModule module, long timeout, Class<?> eventClass) throws NoSuchMethodException {
+        this.plugin = plugin;
+        this.command = command;
+        this.module = module;
+        this.timeout = timeout;
+        this.eventClass = eventClass;
+        this.getSender = eventClass.getMethod("getSender");
+        this.getBuffer = eventClass.getMethod("getBuffer");
+        this.isCommand = eventClass.getMethod("isCommand");
+        this.isHandled = eventClass.getMethod("isHandled");
+        this.setHandled = eventClass.getMethod("setHandled", boolean.class);
+        this.setCompletions = eventClass.getMethod("setCompletions", List.class);
+    }
+
+    /** Registers the hook if the server supports asynchronous tab completion
+     * @return Whether the hook was registered */
+    @SuppressWarnings("unchecked")
+    static boolean register(JavaPlugin plugin, PluginCommand command, CommandModule module, long timeout) {
+        Class<?> eventClass;
+        try {
+            eventClass = Class.forName(EVENT_CLASS);
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        try {
+            AsyncTabCompleteHook hook = new AsyncTabCompleteHook(plugin, command, module, timeout, eventClass);
+            Bukkit.getPluginManager().registerEvent((Class<? extends Event>) eventClass, hook, EventPriority.NORMAL, hook, plugin, true);
+            return true;
+        } catch (NoSuchMethodException e) {
+            plugin.getLogger().warning("Unsupported async tab complete event, using synchronous tab completion");
+            return false;
+        }
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) {
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+        try {
+            if ((boolean) isHandled.invoke(event) || !(boolean) isCommand.invoke(event)) {
+                return;
+            }
+            String buffer = (String) getBuffer.invoke(event);
+            int space = buffer.indexOf(' ');
+            if (space == -1) {
+                return;
+            }
+            String label = buffer.substring(buffer.startsWith("/") ? 1 : 0, space);
+            CommandSender sender = (CommandSender) getSender.invoke(event);
+            if (plugin.getServer().getPluginCommand(label) != command || !command.testPermissionSilent(sender)) {
+                return;
+            }
+
+            CompletableFuture<List<String>> future = module.completeAsync(sender, buffer.substring(space + 1).split(" ", -1));
+            if (future == null) {
+                return;
+            }
+            List<String> completions = future.get(timeout, TimeUnit.MILLISECONDS);
+            setCompletions.invoke(event, completions);
+            setHandled.invoke(event, true);
+        } catch (TimeoutException e) {
+            // Left to the synchronous tab completer, which answers with the last known result
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.bestemor.core.command;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** Completion provider keeping its values in a {@link CommandTrie} until they expire. Values are matched ignoring case */
+class CachedCompletions implements CompletionProvider {
+
+    static final CachedCompletions ONLINE_PLAYERS = new CachedCompletions(() -> {
+        List<String> names = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            names.add(player.getName());
+        }
+        return names;
+    }, TimeUnit.SECONDS.toNanos(1));
+
+    private final Supplier<? extends Collection<String>> values;
+    private final long ttl;
+
+    private volatile Snapshot snapshot;
+
+    CachedCompletions(Supplier<? extends Collection<String>> values, long ttl) {
+        this.values = values;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public List<String> complete(CommandSender sender, String prefix) {
+        Snapshot snapshot = this.snapshot;
+        long now = System.nanoTime();
+        if (snapshot == null || now - snapshot.created >= ttl) {
+            CommandTrie<String> trie = new CommandTrie<>(true);
+            for (String value : values.get()) {
+                trie.put(value, value);
+            }
+            snapshot = new Snapshot(trie, now);
+            this.snapshot = snapshot;
+        }
+        return snapshot.trie.complete(prefix);
+    }
+
+    /** Discards the cached values, so they are fetched again on the next completion */
+    void invalidate() {
+        snapshot = null;
+    }
+
+    private static class Snapshot {
+        private final CommandTrie<String> trie;
+        private final long created;
+
+        private Snapshot(CommandTrie<String> trie, long created) {
+            this.trie = trie;
+            this.created = created;
+        }
+    }
+}
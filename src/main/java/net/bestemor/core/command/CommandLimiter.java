@@ -0,0 +1,110 @@
+package net.bestemor.core.command;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces subcommand cooldowns and a global rate limit per player for a {@link CommandModule}.
+ * The state of each player is a single long array holding a token bucket followed by the end of
+ * each cooldown. Players whose cooldowns have ended and whose bucket is full are purged periodically.
+ */
+class CommandLimiter {
+
+    /** Returned by {@link #tryAcquire(UUID, CommandNode)} when the rate limit is exceeded */
+    static final long RATE_LIMITED = -1;
+
+    private static final long PURGE_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int TOKENS = 0;
+    private static final int LAST_REFILL = 1;
+    private static final int COOLDOWNS = 2;
+
+    private final Map<UUID, long[]> players = new HashMap<>();
+    private final int cooldowns;
+    private final int capacity;
+    private final long refillNanos;
+
+    private long lastPurge = System.nanoTime();
+
+    /** @param cooldowns Amount of nodes with a cooldown
+     * @param capacity Commands allowed in a burst, or 0 for no rate limit
+     * @param refillNanos Time until another command is allowed */
+    CommandLimiter(int cooldowns, int capacity, long refillNanos) {
+        this.cooldowns = cooldowns;
+        this.capacity = capacity;
+        this.refillNanos = refillNanos;
+    }
+
+    /** Checks if a player may run a node, starting its cooldown and consuming a token if so
+     * @return 0 if allowed, {@link #RATE_LIMITED}, or the remaining cooldown in nanoseconds */
+    long tryAcquire(UUID player, CommandNode node) {
+        return tryAcquire(player, node, System.nanoTime());
+    }
+
+    /** @param now Current time from {@link System#nanoTime()} */
+    synchronized long tryAcquire(UUID player, CommandNode node, long now) {
+        if (now - lastPurge > PURGE_INTERVAL) {
+            purge(now);
+        }
+
+        long[] state = players.get(player);
+        if (state == null) {
+            state = new long[COOLDOWNS + cooldowns];
+            state[TOKENS] = capacity;
+            state[LAST_REFILL] = now;
+            players.put(player, state);
+        }
+
+        int index = node.getCooldownIndex();
+        if (index >= 0) {
+            long remaining = state[COOLDOWNS + index] - now;
+            if (remaining > 0) {
+                return remaining;
+            }
+        }
+
+        if (capacity > 0) {
+            refill(state, now);
+            if (state[TOKENS] <= 0) {
+                return RATE_LIMITED;
+            }
+            state[TOKENS]--;
+        }
+        if (index >= 0) {
+            state[COOLDOWNS + index] = now + node.getCooldownNanos();
+        }
+        return 0;
+    }
+
+    private void refill(long[] state, long now) {
+        long refills = (now - state[LAST_REFILL]) / refillNanos;
+        if (refills > 0) {
+            state[TOKENS] = Math.min(capacity, state[TOKENS] + refills);
+            state[LAST_REFILL] = state[TOKENS] == capacity ? now : state[LAST_REFILL] + refills * refillNanos;
+        }
+    }
+
+    private void purge(long now) {
+        lastPurge = now;
+        Iterator<long[]> iterator = players.values().iterator();
+        while (iterator.hasNext()) {
+            long[] state = iterator.next();
+            if (capacity > 0) {
+                refill(state, now);
+                if (state[TOKENS] < capacity) {
+                    continue;
+                }
+            }
+            boolean active = false;
+            for (int i = COOLDOWNS; i < state.length && !active; i++) {
+                active = state[i] - now > 0;
+            }
+            if (!active) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -1,40 +1,99 @@
 package net.bestemor.core.command;
 
+import net.bestemor.core.CorePlugin;
 import net.bestemor.core.config.ConfigManager;
+import net.bestemor.core.config.DurationFormatter;
+import net.bestemor.core.metrics.Counter;
+import net.bestemor.core.metrics.Histogram;
+import net.bestemor.core.metrics.Metrics;
+import net.bestemor.core.metrics.Watchdog;
+import net.bestemor.core.utils.PermissionCache;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
+/**
+ * Command executor dispatching to subcommands. Subcommands form a tree of {@link CommandNode}s,
+ * where each word of the command is looked up in a prefix trie of the current node's children.
+ */
 public class CommandModule implements CommandExecutor, TabCompleter {
 
-    private Map<String, ISubCommand> subCommands;
+    private static final Counter COMMANDS = Metrics.counter("bestemorcore_commands_total", "Subcommands dispatched");
+    private static final Counter COMMANDS_REJECTED = Metrics.counter("bestemorcore_commands_rejected_total", "Subcommands rejected by permission, cooldown, rate or concurrency limits");
+    private static final Histogram COMMAND_TIME = Metrics.histogram("bestemorcore_command_seconds", "Time running synchronous subcommands");
+
+    private static final DurationFormatter COOLDOWN_FORMAT = DurationFormatter.builder().seconds().build();
+
+    private CommandNode root;
     private JavaPlugin plugin;
 
     private String permissionPrefix;
     private ChatColor pluginNameChatColor;
+    private long asyncCompletionTimeout;
+    private int maxAsyncPerSender;
+    private int rateLimitCapacity;
+    private long rateLimitRefillNanos;
+    private CommandLimiter limiter;
+
+    private final Map<String, Integer> running = new ConcurrentHashMap<>();
 
     private CommandModule() {}
 
     public static class Builder {
 
         private final JavaPlugin plugin;
-        private final Map<String, ISubCommand> subCommands = new HashMap<>();
+        private final CommandNode root = CommandNode.literal("");
         private String permissionPrefix = "command";
         private ChatColor pluginNameChatColor = ChatColor.AQUA;
+        private long asyncCompletionTimeout = 250;
+        private int maxAsyncPerSender = 1;
+        private final Map<String, Long> cooldowns = new HashMap<>();
+        private int rateLimitCapacity = 0;
+        private long rateLimitRefillNanos = 0;
 
         public Builder(JavaPlugin plugin) {
             this.plugin = plugin;
         }
 
         public Builder addSubCommand(String label, ISubCommand ISubCommand) {
-            subCommands.put(label, ISubCommand);
+            root.then(CommandNode.literal(label).executes(ISubCommand));
+            return this;
+        }
+
+        /** Adds a subcommand which can also be run by its aliases
+         * @param label Label of the subcommand, also used for its permission
+         * @param subCommand Subcommand to run
+         * @param aliases Other labels running the subcommand */
+        @SuppressWarnings("unused")
+        public Builder addSubCommand(String label, ISubCommand subCommand, String... aliases) {
+            root.then(CommandNode.literal(label, aliases).executes(subCommand));
+            return this;
+        }
+
+        /** Adds a tree of nested subcommands. Permissions of executable nodes are the
+         * permission prefix followed by the literal words leading to it, separated by dots
+         * @param node Literal node matching the first argument */
+        @SuppressWarnings("unused")
+        public Builder addNode(CommandNode node) {
+            if (node.isArgument()) {
+                throw new IllegalArgumentException("Top level node must be a literal! Got argument " + node.getName());
+            }
+            root.then(node);
             return this;
         }
 
@@ -48,12 +107,68 @@ public class CommandModule implements CommandExecutor, TabCompleter {
             return this;
         }
 
+        /** Sets how long asynchronous tab completion waits for completions, on servers supporting it.
+         * Completions taking longer are answered with the last known result instead
+         * @param time Time to wait
+         * @param unit Unit of the time */
+        @SuppressWarnings("unused")
+        public Builder asyncCompletionTimeout(long time, TimeUnit unit) {
+            this.asyncCompletionTimeout = unit.toMillis(time);
+            return this;
+        }
+
+        /** Sets how many runs of the same asynchronous subcommand a sender can have at once
+         * @param max Maximum amount of concurrent runs per sender and subcommand */
+        @SuppressWarnings("unused")
+        public Builder maxAsyncPerSender(int max) {
+            if (max < 1) {
+                throw new IllegalArgumentException("Max async runs per sender must be at least 1! Got " + max);
+            }
+            this.maxAsyncPerSender = max;
+            return this;
+        }
+
+        /** Sets the time a player must wait between each run of a subcommand
+         * @param label Label of a subcommand added to this builder
+         * @param time Time to wait
+         * @param unit Unit of the time */
+        @SuppressWarnings("unused")
+        public Builder cooldown(String label, long time, TimeUnit unit) {
+            cooldowns.put(label, unit.toNanos(time));
+            return this;
+        }
+
+        /** Limits how many subcommands of this module a player can run, across all subcommands
+         * @param commands Amount of commands allowed within the period, also allowed in a burst
+         * @param period Period the commands are allowed within
+         * @param unit Unit of the period */
+        @SuppressWarnings("unused")
+        public Builder rateLimit(int commands, long period, TimeUnit unit) {
+            if (commands < 1) {
+                throw new IllegalArgumentException("Rate limit must allow at least 1 command! Got " + commands);
+            }
+            this.rateLimitCapacity = commands;
+            this.rateLimitRefillNanos = Math.max(1, unit.toNanos(period) / commands);
+            return this;
+        }
+
         public CommandModule build() {
+            cooldowns.forEach((label, nanos) -> {
+                CommandNode node = root.getChild(label);
+                if (node == null || node.isArgument()) {
+                    throw new IllegalStateException("Cooldown set for unknown subcommand! Got " + label);
+                }
+                node.cooldown(nanos, TimeUnit.NANOSECONDS);
+            });
             CommandModule commandModule = new CommandModule();
-            commandModule.subCommands = subCommands;
+            commandModule.root = root;
             commandModule.plugin = plugin;
             commandModule.permissionPrefix = permissionPrefix;
             commandModule.pluginNameChatColor = pluginNameChatColor;
+            commandModule.asyncCompletionTimeout = asyncCompletionTimeout;
+            commandModule.maxAsyncPerSender = maxAsyncPerSender;
+            commandModule.rateLimitCapacity = rateLimitCapacity;
+            commandModule.rateLimitRefillNanos = rateLimitRefillNanos;
             return commandModule;
         }
     }
@@ -74,11 +189,20 @@ public class CommandModule implements CommandExecutor, TabCompleter {
         public void run(CommandSender sender, String[] args) {
             List<String> help = new ArrayList<>();
             help.add("§l§m------§r " + pluginNameChatColor + "§l" + plugin.getName() + " Commands §r§l§m------");
-            subCommands.forEach((k, v) -> {
-                help.add("§b/" + mainCommandName + " " + k + (v.getUsage() == null || v.getUsage().equals("") ? "" : " ") + v.getUsage() + "§7 - " + v.getDescription());
-            });
+            addHelp(help, root, "§b/" + mainCommandName);
             help.forEach(sender::sendMessage);
         }
+
+        private void addHelp(List<String> help, CommandNode node, String path) {
+            for (CommandNode child : node.getChildren()) {
+                String childPath = path + " " + (child.isArgument() ? "<" + child.getName() + ">" : child.getName());
+                ISubCommand v = child.getCommand();
+                if (v != null) {
+                    help.add(childPath + (v.getUsage() == null || v.getUsage().equals("") ? "" : " ") + v.getUsage() + "§7 - " + v.getDescription());
+                }
+                addHelp(help, child, childPath);
+            }
+        }
         @Override
         public String getDescription() {
             return "Show commands";
@@ -94,46 +218,177 @@ public class CommandModule implements CommandExecutor, TabCompleter {
      * @param command Command name */
     public void register(String command) {
         HelpCommandI helpCommand = new HelpCommandI(command);
-        subCommands.put("help", helpCommand);
+        root.then(CommandNode.literal("help").executes(helpCommand));
+        for (CommandNode child : root.getChildren()) {
+            child.assignPermissions(permissionPrefix);
+        }
+        int cooldowns = root.assignCooldowns(0);
+        if (cooldowns > 0 || rateLimitCapacity > 0) {
+            limiter = new CommandLimiter(cooldowns, rateLimitCapacity, rateLimitRefillNanos);
+        }
 
-        Objects.requireNonNull(plugin.getCommand(command)).setExecutor(this);
-        Objects.requireNonNull(plugin.getCommand(command)).setTabCompleter(this);
+        PluginCommand pluginCommand = Objects.requireNonNull(plugin.getCommand(command));
+        pluginCommand.setExecutor(this);
+        pluginCommand.setTabCompleter(this);
+        AsyncTabCompleteHook.register(plugin, pluginCommand, this, asyncCompletionTimeout);
     }
 
     @Override
     public boolean onCommand(CommandSender sender,Command command, String s, String[] args) {
-        if (args.length == 0 || !subCommands.containsKey(args[0])) {
+        CommandNode executed = null;
+        CommandNode node = root;
+        for (String arg : args) {
+            node = node.getChild(arg);
+            if (node == null) {
+                break;
+            }
+            if (node.getCommand() != null) {
+                executed = node;
+            }
+        }
+
+        if (executed == null) {
             sender.sendMessage(ConfigManager.getMessage("messages.invalid_command_usage"));
             return true;
         }
+        COMMANDS.increment();
 
-        if (subCommands.get(args[0]).requirePermission() && sender instanceof Player) {
+        if (executed.getCommand().requirePermission() && sender instanceof Player) {
             Player player = (Player) sender;
-            if (!player.hasPermission(permissionPrefix + "." + args[0])) {
+            PermissionCache permissions = CorePlugin.getPermissionCache();
+            if (!(permissions == null ? player.hasPermission(executed.getPermission()) : permissions.has(player, executed.getPermission()))) {
                 player.sendMessage(ConfigManager.getMessage("messages.no_permission_command"));
+                COMMANDS_REJECTED.increment();
+                return true;
+            }
+        }
+        // Async runs are admitted before consuming a token, so a rejected run does not start a cooldown
+        String asyncKey = null;
+        if (executed.getCommand().getExecutionMode() == ISubCommand.ExecutionMode.ASYNC) {
+            asyncKey = (sender instanceof Player ? ((Player) sender).getUniqueId().toString() : sender.getName()) + " " + executed.getPermission();
+            if (!admit(asyncKey)) {
+                COMMANDS_REJECTED.increment();
+                sender.sendMessage(ConfigManager.getMessage("messages.command_in_progress", "&cThis command is still running, please wait"));
+                return true;
+            }
+        }
+        if (limiter != null && sender instanceof Player) {
+            long result = limiter.tryAcquire(((Player) sender).getUniqueId(), executed);
+            if (result != 0) {
+                COMMANDS_REJECTED.increment();
+                if (asyncKey != null) {
+                    release(asyncKey);
+                }
+            }
+            if (result == CommandLimiter.RATE_LIMITED) {
+                sender.sendMessage(ConfigManager.getMessage("messages.command_rate_limit", "&cYou are using commands too fast, please slow down"));
                 return true;
+            } else if (result > 0) {
+                long seconds = (result + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+                sender.sendMessage(ConfigManager.getMessage("messages.command_cooldown", "&cYou must wait %time% before using this command again").replace("%time%", COOLDOWN_FORMAT.format(seconds)));
+                return true;
+            }
+        }
+
+        if (asyncKey != null) {
+            runAsync(sender, executed.getCommand(), executed.getPermission(), asyncKey, args);
+        } else {
+            long start = Metrics.start();
+            Watchdog.Watch watch = Watchdog.isEnabled() ? Watchdog.begin(executed.getCommand().getClass(), "command /" + s, "args: " + String.join(" ", args)) : null;
+            try {
+                executed.getCommand().run(sender, args);
+            } finally {
+                Watchdog.end(watch);
+                COMMAND_TIME.stop(start);
             }
         }
-        subCommands.get(args[0]).run(sender, args);
         return true;
     }
 
+    /** Counts a run of an asynchronous subcommand, unless the sender already runs it the maximum amount of times
+     * @param key Sender and subcommand
+     * @return Whether the run was admitted */
+    private boolean admit(String key) {
+        boolean[] admitted = {false};
+        running.compute(key, (k, count) -> {
+            if (count != null && count >= maxAsyncPerSender) {
+                return count;
+            }
+            admitted[0] = true;
+            return count == null ? 1 : count + 1;
+        });
+        return admitted[0];
+    }
+
+    private void release(String key) {
+        running.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    /** Runs an admitted subcommand on the core worker pool */
+    private void runAsync(CommandSender sender, ISubCommand subCommand, String permission, String key, String[] args) {
+        Runnable task = () -> {
+            try {
+                subCommand.run(sender, args);
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "Error running asynchronous command " + permission, t);
+            } finally {
+                release(key);
+            }
+        };
+        ExecutorService workers = CorePlugin.getWorkerPool();
+        if (workers != null) {
+            try {
+                workers.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Pool was shut down while disabling, fall back to the Bukkit scheduler
+            }
+        }
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        } catch (IllegalPluginAccessException e) {
+            release(key);
+        }
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender commandSender, Command command, String s, String[] args) {
 
-        if (args.length == 0 || args[0].length() == 0) {
-            return new ArrayList<>(subCommands.keySet());
+        if (args.length == 0) {
+            return root.complete(commandSender, "");
+        }
+
+        CommandNode node = root;
+        for (int i = 0; i < args.length - 1; i++) {
+            CommandNode child = node.getChild(args[i]);
+            if (child == null) {
+                return node.getCommand() == null ? null : node.getCommand().getCompletion(args);
+            }
+            node = child;
+        }
+
+        //Subcommands without nested nodes complete their own arguments
+        if (node != root && node.isLeaf() && node.getCommand() != null) {
+            return node.getCommand().getCompletion(args);
         }
+        return node.complete(commandSender, args[args.length - 1]);
+    }
 
-        //Tab completion for registered sub-commands
-        if (args.length == 1) {
-            return subCommands.keySet().stream()
-                    .filter(c -> c.startsWith(args[0]))
-                    .collect(Collectors.toList());
+    /** Completes arguments off the main thread, if the argument being completed has an asynchronous provider
+     * @return Future completed with completions, or null if the completions must be looked up on the main thread
+     * @param sender Sender completing the command
+     * @param args Arguments typed so far */
+    CompletableFuture<List<String>> completeAsync(CommandSender sender, String[] args) {
+        CommandNode node = root;
+        for (int i = 0; i < args.length - 1; i++) {
+            node = node.getChild(args[i]);
+            if (node == null) {
+                return null;
+            }
         }
-        if (subCommands.containsKey(args[0])) {
-            return subCommands.get(args[0]).getCompletion(args);
+        if (!node.hasAsyncCompletions() || (node != root && node.isLeaf())) {
+            return null;
         }
-        return null;
+        return node.completeAsync(sender, args.length == 0 ? "" : args[args.length - 1]);
     }
 }
@@ -0,0 +1,201 @@
+package net.bestemor.core.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node in a command tree. Literal nodes match a fixed word or one of its aliases, while an
+ * argument node matches any word and completes it with a {@link CompletionProvider}.
+ * Literal children are stored in a prefix trie, so both lookups and completions only visit
+ * matching children. Nodes with an {@link ISubCommand} can be executed, and receive all
+ * arguments of the command, as with subcommands added directly to a {@link CommandModule}.
+ */
+@SuppressWarnings("unused")
+public final class CommandNode {
+
+    private final String name;
+    private final String[] aliases;
+    private final CompletionProvider completions;
+
+    private final CommandTrie<CommandNode> literals = new CommandTrie<>(false);
+    private final List<CommandNode> children = new ArrayList<>();
+    private CommandNode argument;
+    private ISubCommand command;
+    private String permission;
+    private long cooldownNanos = 0;
+    private int cooldownIndex = -1;
+
+    private CommandNode(String name, String[] aliases, CompletionProvider completions) {
+        this.name = name;
+        this.aliases = aliases;
+        this.completions = completions;
+    }
+
+    /** @return Node matching a fixed word
+     * @param name Word to match, case-sensitive as with subcommands added to a {@link CommandModule}
+     * @param aliases Other words matching this node */
+    public static CommandNode literal(String name, String... aliases) {
+        return new CommandNode(name, aliases, null);
+    }
+
+    /** @return Node matching any word
+     * @param name Name of the argument, used in the help command
+     * @param completions Provider of completions for the argument */
+    public static CommandNode argument(String name, CompletionProvider completions) {
+        return new CommandNode(name, new String[0], completions);
+    }
+
+    /** Adds a child node. A node can have any amount of literal children, but only one argument child.
+     * A literal child with the same name as an existing one replaces it
+     * @param child Node to add
+     * @return This node */
+    public CommandNode then(CommandNode child) {
+        if (child.isArgument()) {
+            if (argument != null) {
+                throw new IllegalStateException("Node " + name + " already has an argument! Got " + child.name);
+            }
+            argument = child;
+            children.add(child);
+            return this;
+        }
+
+        CommandNode existing = literals.get(child.name);
+        if (existing != null && existing.name.equals(child.name)) {
+            for (String alias : existing.aliases) {
+                if (literals.get(alias) == existing) {
+                    literals.remove(alias);
+                }
+            }
+            children.set(children.indexOf(existing), child);
+        } else {
+            children.add(child);
+        }
+        literals.put(child.name, child);
+        for (String alias : child.aliases) {
+            literals.put(alias, child);
+        }
+        return this;
+    }
+
+    /** Makes the node executable
+     * @param command Command run when this is the deepest executable node matched
+     * @return This node */
+    public CommandNode executes(ISubCommand command) {
+        this.command = command;
+        return this;
+    }
+
+    /** Sets the time a player must wait between each run of this node
+     * @param time Time to wait, or 0 for no cooldown
+     * @param unit Unit of the time
+     * @return This node */
+    public CommandNode cooldown(long time, TimeUnit unit) {
+        this.cooldownNanos = unit.toNanos(time);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** @return Permission required to execute this node, assigned when the command is registered */
+    public String getPermission() {
+        return permission;
+    }
+
+    /** Assigns permissions to this node and its descendants, made of the parent permission
+     * followed by the name of each literal node
+     * @param parent Permission of the parent node */
+    void assignPermissions(String parent) {
+        this.permission = isArgument() ? parent : (parent + "." + name).intern();
+        for (CommandNode child : children) {
+            child.assignPermissions(permission);
+        }
+    }
+
+    long getCooldownNanos() {
+        return cooldownNanos;
+    }
+
+    int getCooldownIndex() {
+        return cooldownIndex;
+    }
+
+    /** Assigns consecutive indexes to this node and its descendants with a cooldown
+     * @param next Index of the next node with a cooldown
+     * @return Index following the last assigned index */
+    int assignCooldowns(int next) {
+        this.cooldownIndex = cooldownNanos > 0 ? next++ : -1;
+        for (CommandNode child : children) {
+            next = child.assignCooldowns(next);
+        }
+        return next;
+    }
+
+    /** @return Whether this node matches any word instead of a fixed word */
+    public boolean isArgument() {
+        return completions != null;
+    }
+
+    /** @return Command run by this node, or null if it can't be executed */
+    public ISubCommand getCommand() {
+        return command;
+    }
+
+    /** @return Child nodes, in the order they were added */
+    public List<CommandNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /** @return Child matching a word, preferring literal children over the argument child
+     * @param word Word to match */
+    public CommandNode getChild(String word) {
+        CommandNode literal = literals.get(word);
+        return literal != null ? literal : argument;
+    }
+
+    /** @return Whether the node has no children */
+    public boolean isLeaf() {
+        return children.isEmpty();
+    }
+
+    /** @return Completions for a child of this node
+     * @param sender Sender completing the command
+     * @param prefix Word typed so far */
+    public List<String> complete(CommandSender sender, String prefix) {
+        List<String> result = literals.complete(prefix);
+        if (argument != null) {
+            List<String> arguments = argument.completions.complete(sender, prefix);
+            if (result.isEmpty()) {
+                return arguments;
+            }
+            result.addAll(arguments);
+        }
+        return result;
+    }
+
+    /** @return Whether the argument child of this node completes off the main thread */
+    boolean hasAsyncCompletions() {
+        return argument != null && argument.completions.isAsync();
+    }
+
+    /** @return Future completed with completions for a child of this node. Only argument
+     * completions are looked up asynchronously
+     * @param sender Sender completing the command
+     * @param prefix Word typed so far */
+    public CompletableFuture<List<String>> completeAsync(CommandSender sender, String prefix) {
+        List<String> result = literals.complete(prefix);
+        if (argument == null) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return argument.completions.completeAsync(sender, prefix).thenApply(arguments -> {
+            result.addAll(arguments);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package net.bestemor.core.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prefix trie mapping keys to values, optionally ignoring case. Used for looking up command
+ * nodes and completions by prefix, without scanning every key.
+ * Not thread-safe, instances should not be modified once shared between threads.
+ * @param <V> Type of the values
+ */
+class CommandTrie<V> {
+
+    private final Node<V> root = new Node<>();
+    private final boolean ignoreCase;
+    private int size = 0;
+
+    /** @param ignoreCase Whether keys are matched ignoring case */
+    CommandTrie(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /** Adds a key, replacing the value of an existing key
+     * @param key Key to add
+     * @param value Value of the key */
+    void put(String key, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(fold(key.charAt(i)), c -> new Node<>());
+        }
+        if (node.key == null) {
+            size++;
+        }
+        node.key = key;
+        node.value = value;
+    }
+
+    /** @return Value of a key, or null if not present
+     * @param key Key to look up */
+    V get(String key) {
+        Node<V> node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    /** Removes a key if present
+     * @param key Key to remove */
+    void remove(String key) {
+        Node<V> node = find(key);
+        if (node != null && node.key != null) {
+            node.key = null;
+            node.value = null;
+            size--;
+        }
+    }
+
+    /** @return Keys starting with a prefix, in alphabetical order
+     * @param prefix Prefix to match */
+    List<String> complete(String prefix) {
+        List<String> result = new ArrayList<>();
+        Node<V> node = find(prefix);
+        if (node != null) {
+            collect(node, result);
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private Node<V> find(String key) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(fold(key.charAt(i)));
+        }
+        return node;
+    }
+
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    private void collect(Node<V> node, List<String> result) {
+        if (node.key != null) {
+            result.add(node.key);
+        }
+        for (Node<V> child : node.children.values()) {
+            collect(child, result);
+        }
+    }
+
+    private static class Node<V> {
+        private final Map<Character, Node<V>> children = new TreeMap<>();
+        private String key;
+        private V value;
+    }
+}
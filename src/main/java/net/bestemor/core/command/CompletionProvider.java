@@ -0,0 +1,84 @@
+package net.bestemor.core.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Provides tab completions for an argument {@link CommandNode}.
+ */
+@FunctionalInterface
+public interface CompletionProvider {
+
+    /** @return Completions starting with the given prefix
+     * @param sender Sender completing the command
+     * @param prefix Argument typed so far */
+    List<String> complete(CommandSender sender, String prefix);
+
+    /** @return Whether this provider is safe to call off the main thread. Only such providers are answered
+     * from an asynchronous tab complete event, all others are completed by the main thread */
+    default boolean isAsync() {
+        return false;
+    }
+
+    /** Completes off the main thread, used on servers firing an asynchronous tab complete event
+     * if {@link #isAsync()} is true. By default completes immediately with {@link #complete(CommandSender, String)}
+     * @return Future completed with completions starting with the given prefix
+     * @param sender Sender completing the command
+     * @param prefix Argument typed so far */
+    default CompletableFuture<List<String>> completeAsync(CommandSender sender, String prefix) {
+        return CompletableFuture.completedFuture(complete(sender, prefix));
+    }
+
+    /** @return Provider filtering the given values each time it completes
+     * @param values Supplier of all possible values */
+    @SuppressWarnings("unused")
+    static CompletionProvider of(Supplier<? extends Collection<String>> values) {
+        return (sender, prefix) -> {
+            List<String> result = new ArrayList<>();
+            for (String value : values.get()) {
+                if (value.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    result.add(value);
+                }
+            }
+            return result;
+        };
+    }
+
+    /** @return Provider caching the given values in a prefix trie, which is rebuilt once it is older than the given time
+     * @param values Supplier of all possible values, called at most once per interval
+     * @param ttl Time the values are cached for
+     * @param unit Unit of the time */
+    @SuppressWarnings("unused")
+    static CompletionProvider cached(Supplier<? extends Collection<String>> values, long ttl, TimeUnit unit) {
+        return new CachedCompletions(values, unit.toNanos(ttl));
+    }
+
+    /** @return Provider for completions which are slow to look up, such as database queries. Servers with
+     * asynchronous tab completion wait for the future off the main thread. Other servers never wait, and
+     * are answered with the last known result while a new lookup runs in the background
+     * @param completer Function returning a future of completions for a sender and prefix.
+     * Called off the main thread on servers with asynchronous tab completion */
+    @SuppressWarnings("unused")
+    static CompletionProvider async(BiFunction<CommandSender, String, CompletableFuture<List<String>>> completer) {
+        return new AsyncCompletions(completer);
+    }
+
+    /** @return Provider completing names of online players, cached for one second */
+    @SuppressWarnings("unused")
+    static CompletionProvider onlinePlayers() {
+        return CachedCompletions.ONLINE_PLAYERS;
+    }
+
+    /** @return Provider without any completions */
+    @SuppressWarnings("unused")
+    static CompletionProvider none() {
+        return (sender, prefix) -> new ArrayList<>();
+    }
+}
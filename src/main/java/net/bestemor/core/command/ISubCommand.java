@@ -17,4 +17,16 @@ public interface ISubCommand {
     default boolean requirePermission() {
         return true;
     }
+
+    /** Returns the thread {@link #run(CommandSender, String[])} is called on */
+    default ExecutionMode getExecutionMode() {
+        return ExecutionMode.SYNC;
+    }
+
+    enum ExecutionMode {
+        /** Runs on the main thread */
+        SYNC,
+        /** Runs on the core worker pool. Each sender can only run a limited amount at once */
+        ASYNC
+    }
 }
@@ -2,6 +2,9 @@ package net.bestemor.core.config;
 
 import net.bestemor.core.CorePlugin;
 import net.bestemor.core.config.updater.ConfigUpdater;
+import net.bestemor.core.metrics.Counter;
+import net.bestemor.core.metrics.Metrics;
+import net.bestemor.core.metrics.Watchdog;
 import net.md_5.bungee.api.ChatColor;
 import org.bukkit.Sound;
 import org.bukkit.configuration.ConfigurationSection;
@@ -12,7 +15,6 @@ import org.bukkit.plugin.java.JavaPlugin;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +45,9 @@ public abstract class ConfigManager {
 
     private static final Pattern HEX_PATTERN = Pattern.compile("&#(\\w{5}[0-9a-f])");
 
+    private static final Counter LOOKUPS = Metrics.counter("bestemorcore_config_lookups_total", "Config values looked up");
+    private static final Counter CACHE_MISSES = Metrics.counter("bestemorcore_config_cache_misses_total", "Config values looked up and not found in the cache");
+
     private ConfigManager() {}
 
     /** Sets default config used by ConfigManager
@@ -70,6 +75,8 @@ public abstract class ConfigManager {
     public static void clearCache() {
         cache.clear();
         listCache.clear();
+        DurationFormatter.invalidate();
+        CurrencyFormatter.invalidate();
         if (config != null && languagePath != null && languagesFolder != null) {
             loadLanguageFile();
         }
@@ -85,12 +92,14 @@ public abstract class ConfigManager {
     @SuppressWarnings("unused")
     public static void setCurrencyPath(String currencyPath) {
         ConfigManager.currencyPath = currencyPath;
+        CurrencyFormatter.invalidate();
     }
 
     /** Sets path used to determine if currency symbol should be before value. */
     @SuppressWarnings("unused")
     public static void setIsBeforePath(String isBeforePath) {
         ConfigManager.isBeforePath = isBeforePath;
+        CurrencyFormatter.invalidate();
     }
 
     public static String getString(String path) {
@@ -111,10 +120,21 @@ public abstract class ConfigManager {
 
     /** @return Colored string with plugin prefix */
     public static String getMessage(String path) {
+        return withPrefix(getString(path));
+    }
+
+    /** @return Colored string with plugin prefix, or the fallback if the path is not set in config or language file
+     * @param path Path of the message
+     * @param fallback Message used if the path is missing, may contain color codes */
+    public static String getMessage(String path, String fallback) {
+        return withPrefix(get(path, String.class) == null ? translateColor(fallback) : getString(path));
+    }
+
+    private static String withPrefix(String message) {
         if (prefixPath == null || getString(prefixPath).isEmpty()) {
-            return getString(path);
+            return message;
         }
-        return prefixPath == null ? "" : (getString(prefixPath) + (addPrefixSpace ? " " : "")) + getString(path);
+        return getString(prefixPath) + (addPrefixSpace ? " " : "") + message;
     }
 
     @SuppressWarnings("unused")
@@ -246,32 +266,15 @@ public abstract class ConfigManager {
         return new CurrencyBuilder(getString(path));
     }
 
-    /** Returns how much time until the given instant.
+    /** Returns how much time until the given instant. Uses {@link DurationFormatter#getDefault()},
+     * see {@link DurationFormatter} for other formats and batch formatting.
+     * Units are separated by single spaces, without the trailing space earlier versions
+     * added after days or hours when no later unit followed, e.g. "1 day" instead of "1 day ".
      * @param time Instant to calculate remaining time to.
      * @return Time remaining as a readable string. */
     @SuppressWarnings("unused")
     public static String getTimeLeft(Instant time) {
-        if (time == null || time.getEpochSecond() == 0) {
-            return getUnit("never", false);
-        }
-        Instant difference = time.minusSeconds(Instant.now().getEpochSecond()).truncatedTo(ChronoUnit.MINUTES);
-        StringBuilder builder = new StringBuilder();
-        int days = (int) Math.floor(difference.getEpochSecond() / 86400d);
-        int hours = (int) Math.floor((difference.getEpochSecond() - (days * 86400d)) / 3600d);
-        int minutes = (int) Math.ceil((difference.getEpochSecond() - (days * 86400d) - (hours * 3600d)) / 60);
-        if (days > 0) {
-            builder.append(days).append(" ").append(getUnit("d", days > 1)).append(" ");
-        }
-        if (hours > 0) {
-            builder.append(hours).append(" ").append(getUnit("h", hours > 1)).append(" ");
-        }
-        if (minutes > 0) {
-            builder.append(minutes).append(" ").append(getUnit("m", minutes > 1));
-        }
-        if (hours < 1 && minutes < 1 && days < 1)  {
-            builder.append(getString("time.less_than_a_minute"));
-        }
-        return builder.toString();
+        return DurationFormatter.getDefault().formatUntil(time);
     }
 
     /** Returns localized unit from configuration.
@@ -312,10 +315,12 @@ public abstract class ConfigManager {
 
     private static <T> T get(String path, Class<T> clazz) {
         checkConfig();
+        LOOKUPS.increment();
         // Check cache
         if (cache.containsKey(path) && clazz.isInstance(cache.get(path))) {
             return clazz.cast(cache.get(path));
         }
+        CACHE_MISSES.increment();
         Object confO = config.get(path);
         Object o = languageConfig != null && (!clazz.isInstance(confO) || confO.equals(path)) ? languageConfig.get(path) : confO;
         if (clazz.isInstance(o)) {
@@ -360,6 +365,7 @@ public abstract class ConfigManager {
             File target = new File(languagesFolder, language + ".yml");
             try {
                 if (!target.exists()) {
+                    Watchdog.checkBlockingIO("creating " + target.getName());
                     FileConfiguration targetConfig = YamlConfiguration.loadConfiguration(target);
                     targetConfig.save(target);
                 }
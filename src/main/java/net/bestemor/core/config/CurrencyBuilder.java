@@ -1,9 +1,7 @@
 package net.bestemor.core.config;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 
 public class CurrencyBuilder {
@@ -18,19 +16,12 @@ public class CurrencyBuilder {
     }
 
     public String build() {
-        boolean isBefore = ConfigManager.isCurrencyBefore();
-        String currency = ConfigManager.getCurrency();
-
         for (String sOld : replacements.keySet()) {
             s = s.replace(sOld, replacements.get(sOld));
         }
-        for (String sOld : currencyReplacements.keySet()) {
-            BigDecimal formatted = new BigDecimal(currencyReplacements.get(sOld).toString())
-                    .setScale(2, RoundingMode.HALF_UP)
-                    .stripTrailingZeros();
-
-            String amount = String.format(Locale.ENGLISH, "%,.2f", formatted);
-            s = s.replace(sOld, isBefore ? (currency + amount) : (amount + currency));
+        CurrencyFormatter formatter = CurrencyFormatter.getDefault();
+        for (Map.Entry<String, BigDecimal> entry : currencyReplacements.entrySet()) {
+            s = s.replace(entry.getKey(), formatter.format(entry.getValue()));
         }
         if (addPrefix) {
             s = ConfigManager.getPrefix() + " " + s;
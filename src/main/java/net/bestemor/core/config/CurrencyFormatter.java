@@ -0,0 +1,271 @@
+package net.bestemor.core.config;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats currency amounts with two decimals, digit grouping and the configured currency symbol.
+ * Amounts fitting in a long are formatted by hand without {@link String#format}. The currency symbol
+ * and its placement are resolved once after every config reload. Use {@link #getDefault()} for the
+ * format used by {@link CurrencyBuilder}, or {@link #builder()} for other separators and compact notation.
+ */
+@SuppressWarnings("unused")
+public final class CurrencyFormatter {
+
+    private static final long MAX_COMPACT_CENTS = Long.MAX_VALUE / 20;
+
+    private static volatile int generation = 0;
+    private static volatile CurrencyFormatter defaultFormatter;
+
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final String[] compactSuffixes;
+
+    private volatile Symbol symbol;
+
+    private CurrencyFormatter(char groupingSeparator, char decimalSeparator, String[] compactSuffixes) {
+        this.groupingSeparator = groupingSeparator;
+        this.decimalSeparator = decimalSeparator;
+        this.compactSuffixes = compactSuffixes;
+    }
+
+    /** @return Formatter using ',' for grouping and '.' for decimals, as used by {@link CurrencyBuilder} */
+    public static CurrencyFormatter getDefault() {
+        CurrencyFormatter formatter = defaultFormatter;
+        if (formatter == null) {
+            formatter = builder().build();
+            defaultFormatter = formatter;
+        }
+        return formatter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Discards the resolved currency symbol of all formatters. Called when the config cache is cleared. */
+    static void invalidate() {
+        generation++;
+    }
+
+    /** Resolves the currency symbol if needed, so it can be used off the main thread */
+    void preload() {
+        getSymbol();
+    }
+
+    /** @return Amount with currency symbol, e.g. "$1,234.50"
+     * @param amount Amount to format */
+    public String format(BigDecimal amount) {
+        StringBuilder builder = new StringBuilder(24);
+        Symbol symbol = getSymbol();
+        if (symbol.before) {
+            builder.append(symbol.currency);
+        }
+        formatAmount(amount, builder);
+        if (!symbol.before) {
+            builder.append(symbol.currency);
+        }
+        return builder.toString();
+    }
+
+    /** @return Amount without currency symbol, e.g. "1,234.50"
+     * @param amount Amount to format */
+    public String formatAmount(BigDecimal amount) {
+        StringBuilder builder = new StringBuilder(24);
+        formatAmount(amount, builder);
+        return builder.toString();
+    }
+
+    /** Appends an amount without currency symbol to a buffer
+     * @param amount Amount to format
+     * @param out Buffer to append to */
+    public void formatAmount(BigDecimal amount, StringBuilder out) {
+        BigInteger cents = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+        if (cents.bitLength() < 63) {
+            formatCents(cents.longValue(), out);
+        } else {
+            formatLarge(cents, out);
+        }
+    }
+
+    /** Appends an amount given in hundredths to a buffer, e.g. 123450 as "1,234.50"
+     * @param cents Amount in hundredths
+     * @param out Buffer to append to */
+    public void formatCents(long cents, StringBuilder out) {
+        if (cents == Long.MIN_VALUE) {
+            formatLarge(BigInteger.valueOf(cents), out);
+            return;
+        }
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        appendGrouped(cents / 100, out);
+        long fraction = cents % 100;
+        out.append(decimalSeparator).append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    /** @return Amount with currency symbol in compact notation, e.g. "$1.2k" or "$3.4M".
+     * Amounts below one thousand are formatted as with {@link #format(BigDecimal)}
+     * @param amount Amount to format */
+    public String formatCompact(BigDecimal amount) {
+        StringBuilder builder = new StringBuilder(16);
+        Symbol symbol = getSymbol();
+        if (symbol.before) {
+            builder.append(symbol.currency);
+        }
+        formatCompactAmount(amount, builder);
+        if (!symbol.before) {
+            builder.append(symbol.currency);
+        }
+        return builder.toString();
+    }
+
+    /** Appends an amount without currency symbol in compact notation to a buffer
+     * @param amount Amount to format
+     * @param out Buffer to append to */
+    public void formatCompactAmount(BigDecimal amount, StringBuilder out) {
+        BigInteger unscaled = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+        if (unscaled.bitLength() >= 63 || Math.abs(unscaled.longValue()) >= MAX_COMPACT_CENTS) {
+            formatCompactLarge(amount, out);
+            return;
+        }
+        long cents = unscaled.longValue();
+        long abs = Math.abs(cents);
+        if (abs < 100_000) {
+            formatCents(cents, out);
+            return;
+        }
+
+        // Amount in tenths of the chosen unit, rounded half up
+        int index = 0;
+        long unit = 100_000;
+        long tenths = (abs * 10 + unit / 2) / unit;
+        while (tenths >= 10_000 && index < compactSuffixes.length - 1) {
+            unit *= 1000;
+            index++;
+            tenths = (abs * 10 + unit / 2) / unit;
+        }
+        if (cents < 0) {
+            out.append('-');
+        }
+        appendGrouped(tenths / 10, out);
+        if (tenths % 10 != 0) {
+            out.append(decimalSeparator).append((char) ('0' + tenths % 10));
+        }
+        out.append(compactSuffixes[index]);
+    }
+
+    private void formatCompactLarge(BigDecimal amount, StringBuilder out) {
+        int index = compactSuffixes.length - 1;
+        BigInteger tenths = amount.movePointLeft(3 * (index + 1)).setScale(1, RoundingMode.HALF_UP).unscaledValue();
+        if (tenths.signum() < 0) {
+            out.append('-');
+        }
+        String digits = tenths.abs().toString();
+        appendGrouped(digits.length() > 1 ? digits.substring(0, digits.length() - 1) : "0", out);
+        char fraction = digits.charAt(digits.length() - 1);
+        if (fraction != '0') {
+            out.append(decimalSeparator).append(fraction);
+        }
+        out.append(compactSuffixes[index]);
+    }
+
+    private void formatLarge(BigInteger cents, StringBuilder out) {
+        if (cents.signum() < 0) {
+            out.append('-');
+        }
+        String digits = cents.abs().toString();
+        appendGrouped(digits.substring(0, digits.length() - 2), out);
+        out.append(decimalSeparator).append(digits, digits.length() - 2, digits.length());
+    }
+
+    private void appendGrouped(long value, StringBuilder out) {
+        char[] buffer = new char[26];
+        int position = buffer.length;
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0) {
+                buffer[--position] = groupingSeparator;
+            }
+            buffer[--position] = (char) ('0' + value % 10);
+            value /= 10;
+            digits++;
+        } while (value > 0);
+        out.append(buffer, position, buffer.length - position);
+    }
+
+    private void appendGrouped(String digits, StringBuilder out) {
+        for (int i = 0; i < digits.length(); i++) {
+            if (i > 0 && (digits.length() - i) % 3 == 0) {
+                out.append(groupingSeparator);
+            }
+            out.append(digits.charAt(i));
+        }
+    }
+
+    private Symbol getSymbol() {
+        Symbol symbol = this.symbol;
+        if (symbol == null || symbol.generation != generation) {
+            symbol = new Symbol(generation);
+            this.symbol = symbol;
+        }
+        return symbol;
+    }
+
+    /** Currency symbol and placement resolved from configuration */
+    private static class Symbol {
+
+        private final int generation;
+        private final String currency;
+        private final boolean before;
+
+        private Symbol(int generation) {
+            this.generation = generation;
+            this.currency = ConfigManager.getCurrency();
+            this.before = ConfigManager.isCurrencyBefore();
+        }
+    }
+
+    public static class Builder {
+
+        private char groupingSeparator = ',';
+        private char decimalSeparator = '.';
+        private String[] compactSuffixes = {"k", "M", "B", "T"};
+
+        private Builder() {}
+
+        /** Uses the grouping and decimal separators of a locale
+         * @param locale Locale to use separators from */
+        public Builder locale(Locale locale) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            this.groupingSeparator = symbols.getGroupingSeparator();
+            this.decimalSeparator = symbols.getDecimalSeparator();
+            return this;
+        }
+
+        /** @param grouping Separator between groups of thousands
+         * @param decimal Separator between whole and fractional part */
+        public Builder separators(char grouping, char decimal) {
+            this.groupingSeparator = grouping;
+            this.decimalSeparator = decimal;
+            return this;
+        }
+
+        /** @param suffixes Suffixes used in compact notation for thousands, millions, and so on */
+        public Builder compactSuffixes(String... suffixes) {
+            if (suffixes.length == 0) {
+                throw new IllegalArgumentException("At least one compact suffix is required");
+            }
+            this.compactSuffixes = suffixes.clone();
+            return this;
+        }
+
+        public CurrencyFormatter build() {
+            return new CurrencyFormatter(groupingSeparator, decimalSeparator, compactSuffixes);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package net.bestemor.core.config;
+
+import java.time.Instant;
+
+/**
+ * Formats durations using the localized time units from configuration. Units are resolved
+ * once after every config reload, and all arithmetic is done on whole seconds.
+ * Use {@link #getDefault()} for the format used by {@link ConfigManager#getTimeLeft(Instant)},
+ * or {@link #builder()} for custom formats.
+ */
+@SuppressWarnings("unused")
+public final class DurationFormatter {
+
+    private static final long MINUTE = 60;
+    private static final long HOUR = 3600;
+    private static final long DAY = 86400;
+
+    private static volatile int generation = 0;
+    private static volatile DurationFormatter defaultFormatter;
+
+    private final long granularity;
+    private final String separator;
+    private final int maxUnits;
+
+    private volatile Units units;
+
+    private DurationFormatter(long granularity, String separator, int maxUnits) {
+        this.granularity = granularity;
+        this.separator = separator;
+        this.maxUnits = maxUnits;
+    }
+
+    /** @return Formatter with minute granularity used by {@link ConfigManager#getTimeLeft(Instant)} */
+    public static DurationFormatter getDefault() {
+        DurationFormatter formatter = defaultFormatter;
+        if (formatter == null) {
+            formatter = builder().build();
+            defaultFormatter = formatter;
+        }
+        return formatter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Discards resolved units of all formatters. Called when the config cache is cleared. */
+    static void invalidate() {
+        generation++;
+    }
+
+    /** Formats the time left until the given instant
+     * @param time Instant to calculate remaining time to. Null or epoch 0 is formatted as never
+     * @return Time remaining as a readable string */
+    public String formatUntil(Instant time) {
+        if (time == null || time.getEpochSecond() == 0) {
+            return getUnits().never;
+        }
+        return format(time.getEpochSecond() - Instant.now().getEpochSecond());
+    }
+
+    /** @return Duration as a readable string
+     * @param seconds Duration in seconds */
+    public String format(long seconds) {
+        StringBuilder builder = new StringBuilder(32);
+        format(seconds, builder);
+        return builder.toString();
+    }
+
+    /** Appends a formatted duration to a buffer
+     * @param seconds Duration in seconds
+     * @param out Buffer to append to */
+    public void format(long seconds, StringBuilder out) {
+        Units units = getUnits();
+        long total = Math.floorDiv(seconds, granularity) * granularity;
+        if (total < granularity) {
+            if (granularity == MINUTE) {
+                out.append(units.lessThanAMinute);
+            } else {
+                out.append(0).append(' ').append(units.plural[3]);
+            }
+            return;
+        }
+
+        int printed = 0;
+        printed = append(out, units, total / DAY, 0, printed);
+        printed = append(out, units, total % DAY / HOUR, 1, printed);
+        printed = append(out, units, total % HOUR / MINUTE, 2, printed);
+        if (granularity != MINUTE) {
+            append(out, units, total % MINUTE, 3, printed);
+        }
+    }
+
+    /** Formats many durations, reusing a single buffer
+     * @param seconds Durations in seconds
+     * @param out Array receiving the formatted durations, at least as long as the input */
+    public void formatAll(long[] seconds, String[] out) {
+        StringBuilder builder = new StringBuilder(32);
+        for (int i = 0; i < seconds.length; i++) {
+            builder.setLength(0);
+            format(seconds[i], builder);
+            out[i] = builder.toString();
+        }
+    }
+
+    /** Formats the time left until many instants, reusing a single buffer and clock reading
+     * @param times Instants to calculate remaining time to
+     * @param out Array receiving the formatted durations, at least as long as the input */
+    public void formatAllUntil(Instant[] times, String[] out) {
+        long now = Instant.now().getEpochSecond();
+        StringBuilder builder = new StringBuilder(32);
+        for (int i = 0; i < times.length; i++) {
+            Instant time = times[i];
+            if (time == null || time.getEpochSecond() == 0) {
+                out[i] = getUnits().never;
+                continue;
+            }
+            builder.setLength(0);
+            format(time.getEpochSecond() - now, builder);
+            out[i] = builder.toString();
+        }
+    }
+
+    private int append(StringBuilder out, Units units, long amount, int unit, int printed) {
+        if (amount <= 0 || printed >= maxUnits) {
+            return printed;
+        }
+        if (printed > 0) {
+            out.append(separator);
+        }
+        out.append(amount).append(' ').append(amount > 1 ? units.plural[unit] : units.singular[unit]);
+        return printed + 1;
+    }
+
+    private Units getUnits() {
+        Units units = this.units;
+        if (units == null || units.generation != generation) {
+            units = new Units(generation);
+            this.units = units;
+        }
+        return units;
+    }
+
+    /** Localized units resolved from configuration */
+    private static class Units {
+
+        private static final String[] KEYS = {"d", "h", "m", "s"};
+
+        private final int generation;
+        private final String[] singular = new String[KEYS.length];
+        private final String[] plural = new String[KEYS.length];
+        private final String never;
+        private final String lessThanAMinute;
+
+        private Units(int generation) {
+            this.generation = generation;
+            for (int i = 0; i < KEYS.length; i++) {
+                singular[i] = ConfigManager.getUnit(KEYS[i], false);
+                plural[i] = ConfigManager.getUnit(KEYS[i], true);
+            }
+            this.never = ConfigManager.getUnit("never", false);
+            this.lessThanAMinute = ConfigManager.getString("time.less_than_a_minute");
+        }
+    }
+
+    public static class Builder {
+
+        private long granularity = MINUTE;
+        private String separator = " ";
+        private int maxUnits = 4;
+
+        private Builder() {}
+
+        /** Shows seconds in addition to days, hours and minutes */
+        public Builder seconds() {
+            this.granularity = 1;
+            return this;
+        }
+
+        /** @param separator String placed between units, a single space by default */
+        public Builder separator(String separator) {
+            this.separator = separator;
+            return this;
+        }
+
+        /** @param maxUnits Maximum amount of units shown, starting with the largest */
+        public Builder maxUnits(int maxUnits) {
+            if (maxUnits < 1) {
+                throw new IllegalArgumentException("At least one unit must be shown! Got " + maxUnits);
+            }
+            this.maxUnits = maxUnits;
+            return this;
+        }
+
+        public DurationFormatter build() {
+            return new DurationFormatter(granularity, separator, maxUnits);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package net.bestemor.core.config;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Builds many items from config at once. The string-heavy work of each item (replacements,
+ * colors and lore) runs in parallel on the common fork-join pool, while only the final
+ * ItemStack and ItemMeta step runs on the main thread. Name and lore lines containing a '%' are
+ * resolved in the final step instead, so PlaceholderAPI placeholders are parsed before replacements
+ * are applied, as with {@link ItemBuilder#build()}.
+ * <p>
+ * Items must be added on the main thread, as config paths are resolved when added.
+ */
+@SuppressWarnings("unused")
+public class ItemBatch {
+
+    private final List<ItemBuilder> builders = new ArrayList<>();
+    private boolean finishOffThread = false;
+
+    /** Adds an item from config
+     * @param path path to item in config
+     * @param replacements replacements to apply to name and lore
+     * @return This batch */
+    public ItemBatch add(String path, Map<String, String> replacements) {
+        ItemBuilder builder = ConfigManager.getItem(path);
+        replacements.forEach(builder::replace);
+        builders.add(builder);
+        return this;
+    }
+
+    /** Adds a configured item builder
+     * @param builder builder to add
+     * @return This batch */
+    public ItemBatch add(ItemBuilder builder) {
+        builders.add(builder);
+        return this;
+    }
+
+    /** Creates ItemStacks off the main thread as well. Only enable this on servers where
+     * creating ItemStacks, ItemMeta and parsing placeholders is safe off the main thread.
+     * @param finishOffThread Whether the final step may run off the main thread
+     * @return This batch */
+    public ItemBatch finishOffThread(boolean finishOffThread) {
+        this.finishOffThread = finishOffThread;
+        return this;
+    }
+
+    /** @return Amount of items in this batch */
+    public int size() {
+        return builders.size();
+    }
+
+    /** Builds all items, preparing text in parallel and blocking until done
+     * @return Built items, in the order they were added */
+    public List<ItemStack> build() {
+        CurrencyFormatter.getDefault().preload();
+        return finish(prepareAll());
+    }
+
+    /** Builds all items without blocking. Must be called on the main thread.
+     * @param plugin Plugin used to schedule the final step on the main thread
+     * @return Future completed with the built items, in the order they were added, or
+     * completed exceptionally if the plugin is disabled before the final step */
+    public CompletableFuture<List<ItemStack>> buildAsync(Plugin plugin) {
+        CurrencyFormatter.getDefault().preload();
+        CompletableFuture<List<ItemStack>> result = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(this::prepareAll, ForkJoinPool.commonPool()).whenComplete((prepared, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (finishOffThread) {
+                complete(result, prepared);
+            } else {
+                try {
+                    Bukkit.getScheduler().runTask(plugin, () -> complete(result, prepared));
+                } catch (IllegalPluginAccessException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    private List<ItemBuilder.Prepared> prepareAll() {
+        return builders.parallelStream()
+                .map(builder -> builder.prepare(false))
+                .collect(Collectors.toList());
+    }
+
+    private void complete(CompletableFuture<List<ItemStack>> result, List<ItemBuilder.Prepared> prepared) {
+        try {
+            result.complete(finish(prepared));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+
+    private List<ItemStack> finish(List<ItemBuilder.Prepared> prepared) {
+        List<ItemStack> items = new ArrayList<>(prepared.size());
+        for (ItemBuilder.Prepared item : prepared) {
+            items.add(item.toItemStack());
+        }
+        return items;
+    }
+}
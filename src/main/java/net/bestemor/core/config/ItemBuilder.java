@@ -1,6 +1,8 @@
 package net.bestemor.core.config;
 
 import me.arcaniax.hdb.api.HeadDatabaseAPI;
+import net.bestemor.core.metrics.Histogram;
+import net.bestemor.core.metrics.Metrics;
 import net.bestemor.core.utils.Utils;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -11,12 +13,15 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class ItemBuilder {
 
+    private static final Histogram BUILD_TIME = Metrics.histogram("bestemorcore_item_build_seconds", "Time building items from config");
+
     private final ConfigurationSection section;
 
     private final Map<String, BigDecimal> currencyReplacements = new HashMap<>();
@@ -54,39 +59,67 @@ public class ItemBuilder {
     }
 
     public ItemStack build() {
-        String matString = getString("material");
-        if (matString == null) {
-            return new ItemStack(Material.STONE);
+        long start = Metrics.start();
+        try {
+            return prepare(true).toItemStack();
+        } finally {
+            BUILD_TIME.stop(start);
+        }
+    }
+
+    /** Resolves all text of the item without creating the ItemStack. Only reads from
+     * configuration when placeholders are not parsed, so it may then run off the main thread.
+     * Name and lore lines which may contain placeholders are then kept as configured, and
+     * resolved by {@link Prepared#toItemStack()}.
+     * @param placeholders Whether PlaceholderAPI placeholders should be parsed */
+    Prepared prepare(boolean placeholders) {
+        Prepared prepared = new Prepared(this);
+        prepared.material = getString("material");
+        if (prepared.material == null) {
+            return prepared;
         }
+        prepared.amount = section.getInt("amount");
+        prepared.customModelData = section.getInt("model");
 
-        ItemStack item;
-        if (matString.startsWith("hdb:") && Bukkit.getPluginManager().isPluginEnabled("HeadDatabase")) {
-            HeadDatabaseAPI api = new HeadDatabaseAPI();
-            item = api.getItemHead(matString.replace("hdb:", ""));
-        } else if (matString.contains(":")) {
-            String[] split = matString.split(":");
-            item = new ItemStack(Material.valueOf(split[0]), 1, Short.parseShort(split[1]));
+        String name = getString("name");
+        if (placeholders || name == null || name.indexOf('%') < 0) {
+            prepared.name = resolveName(name, placeholders);
         } else {
-            item = new ItemStack(Material.valueOf(matString));
+            prepared.name = name;
+            prepared.deferredName = true;
         }
-        int amount = section.getInt("amount");
-        item.setAmount(amount > 0 ? amount : 1);
 
-        String name = ConfigManager.translateColor(getString("name"));
-        name = name == null || name.isEmpty() ? "" : Utils.parsePAPI(name);
-        ListBuilder b = new ListBuilder(section.getStringList("lore"));
-        int customModelData = section.getInt("model");
+        List<String> template = section.getStringList("lore");
+        ListBuilder b = new ListBuilder(template);
         b.currencyReplacements = currencyReplacements;
         b.replacements = replacements;
+        prepared.loreBuilder = b;
 
-        List<String> tempLore = b.build();
         List<String> lore = new ArrayList<>();
-        for (String s:tempLore) {
-            lore.add(Utils.parsePAPI(s));
+        for (String line : template) {
+            if (!placeholders && line.indexOf('%') >= 0) {
+                prepared.deferredLore.set(lore.size());
+                lore.add(line);
+            } else {
+                lore.add(b.resolve(line, placeholders));
+            }
         }
 
-        ItemMeta meta = item.getItemMeta();
+        prepared.lore = lore;
+        prepared.enchants = new HashMap<>(enchants);
+        prepared.hideAttributes = hideAttributes;
+        return prepared;
+    }
 
+    /** Placeholders are parsed before replacements are applied, as with lore lines */
+    private String resolveName(String name, boolean placeholders) {
+        name = ConfigManager.translateColor(name);
+        if (name == null || name.isEmpty()) {
+            return "";
+        }
+        if (placeholders) {
+            name = Utils.parsePAPI(name);
+        }
         if (!currencyReplacements.isEmpty()) {
             CurrencyBuilder c = new CurrencyBuilder(name);
             c.currencyReplacements = currencyReplacements;
@@ -95,26 +128,75 @@ public class ItemBuilder {
         for (String sOld : replacements.keySet()) {
             name = name.replace(sOld, replacements.get(sOld));
         }
+        return name;
+    }
+
+    private String getString(String key) {
+        return ConfigManager.getMappedString(section.getString(key));
+    }
+
+    /** Resolved text and settings of an item, used to create the final ItemStack */
+    static class Prepared {
+
+        private final ItemBuilder source;
+        private String material;
+        private int amount;
+        private String name;
+        private boolean deferredName = false;
+        private List<String> lore;
+        private ListBuilder loreBuilder;
+        private final BitSet deferredLore = new BitSet();
+        private int customModelData;
+        private Map<Enchantment, Integer> enchants;
+        private boolean hideAttributes;
+
+        private Prepared(ItemBuilder source) {
+            this.source = source;
+        }
 
-        if (meta != null) {
-            meta.setDisplayName(name);
-            meta.setLore(lore);
-            for (Enchantment enchantment : enchants.keySet()) {
-                meta.addEnchant(enchantment, enchants.get(enchantment), true);
+        /** Creates the ItemStack and its ItemMeta, parsing placeholders in text left unresolved by
+         * {@link ItemBuilder#prepare(boolean)} before applying its replacements */
+        ItemStack toItemStack() {
+            if (material == null) {
+                return new ItemStack(Material.STONE);
             }
-            if (customModelData > 0) {
-                meta.setCustomModelData(customModelData);
+
+            ItemStack item;
+            if (material.startsWith("hdb:") && Bukkit.getPluginManager().isPluginEnabled("HeadDatabase")) {
+                HeadDatabaseAPI api = new HeadDatabaseAPI();
+                item = api.getItemHead(material.replace("hdb:", ""));
+            } else if (material.contains(":")) {
+                String[] split = material.split(":");
+                item = new ItemStack(Material.valueOf(split[0]), 1, Short.parseShort(split[1]));
+            } else {
+                item = new ItemStack(Material.valueOf(material));
             }
-            if (hideAttributes) {
-                meta.addItemFlags(org.bukkit.inventory.ItemFlag.HIDE_ATTRIBUTES);
+            item.setAmount(amount > 0 ? amount : 1);
+
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null) {
+                meta.setDisplayName(deferredName ? source.resolveName(name, true) : name);
+                List<String> resolved = lore;
+                if (!deferredLore.isEmpty()) {
+                    resolved = new ArrayList<>(lore);
+                    for (int i = deferredLore.nextSetBit(0); i >= 0; i = deferredLore.nextSetBit(i + 1)) {
+                        resolved.set(i, loreBuilder.resolve(lore.get(i), true));
+                    }
+                }
+                meta.setLore(resolved);
+                for (Enchantment enchantment : enchants.keySet()) {
+                    meta.addEnchant(enchantment, enchants.get(enchantment), true);
+                }
+                if (customModelData > 0) {
+                    meta.setCustomModelData(customModelData);
+                }
+                if (hideAttributes) {
+                    meta.addItemFlags(org.bukkit.inventory.ItemFlag.HIDE_ATTRIBUTES);
+                }
             }
-        }
 
-        item.setItemMeta(meta);
-        return item;
-    }
-
-    private String getString(String key) {
-        return ConfigManager.getMappedString(section.getString(key));
+            item.setItemMeta(meta);
+            return item;
+        }
     }
 }
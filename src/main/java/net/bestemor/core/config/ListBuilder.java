@@ -1,5 +1,6 @@
 package net.bestemor.core.config;
 
+import net.bestemor.core.utils.StringPool;
 import net.bestemor.core.utils.Utils;
 
 import java.math.BigDecimal;
@@ -29,21 +30,41 @@ public class ListBuilder {
         return this;
     }
 
+    /** @return Built lines, deduplicated through the {@link StringPool} as they are often kept by the caller */
     public List<String> build() {
+        List<String> result = build(true);
+        result.replaceAll(StringPool::intern);
+        return result;
+    }
+
+    /** @param placeholders Whether PlaceholderAPI placeholders should be parsed */
+    List<String> build(boolean placeholders) {
 
         List<String> result = new ArrayList<>();
 
         for (String line : original) {
-            for (String sOld : replacements.keySet()) {
-                line = line.replace(sOld, replacements.get(sOld));
-            }
-            if (!currencyReplacements.isEmpty()) {
-                CurrencyBuilder b = new CurrencyBuilder(line);
-                b.currencyReplacements = currencyReplacements;
-                line = b.build();
-            }
-            result.add(Utils.parsePAPI(ConfigManager.translateColor(line)));
+            result.add(resolve(line, placeholders));
         }
         return result;
     }
+
+    /** Placeholders are parsed in the configured line before replacements are applied,
+     * so replaced values can not inject placeholders
+     * @param line Line as configured
+     * @param placeholders Whether PlaceholderAPI placeholders should be parsed
+     * @return Line with placeholders, replacements, currency and colors applied */
+    String resolve(String line, boolean placeholders) {
+        if (placeholders) {
+            line = Utils.parsePAPI(line);
+        }
+        for (String sOld : replacements.keySet()) {
+            line = line.replace(sOld, replacements.get(sOld));
+        }
+        if (!currencyReplacements.isEmpty()) {
+            CurrencyBuilder b = new CurrencyBuilder(line);
+            b.currencyReplacements = currencyReplacements;
+            line = b.build();
+        }
+        return ConfigManager.translateColor(line);
+    }
 }
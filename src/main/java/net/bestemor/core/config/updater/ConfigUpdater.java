@@ -2,6 +2,7 @@ package net.bestemor.core.config.updater;
 
 import com.google.common.base.Preconditions;
 import net.bestemor.core.config.ConfigManager;
+import net.bestemor.core.metrics.Watchdog;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -22,6 +23,7 @@ public class ConfigUpdater {
 
     public static void update(Plugin plugin, String resourceName, File toUpdate, List<String> ignoredSections) throws IOException {
         Preconditions.checkArgument(toUpdate.exists(), "The toUpdate file doesn't exist!");
+        Watchdog.checkBlockingIO("updating " + toUpdate.getName());
 
         FileConfiguration defaultConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(plugin.getResource(resourceName), StandardCharsets.UTF_8));
         FileConfiguration currentConfig = YamlConfiguration.loadConfiguration(toUpdate);
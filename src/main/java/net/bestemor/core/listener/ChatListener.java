@@ -2,8 +2,14 @@ package net.bestemor.core.listener;
 
 import net.bestemor.core.CorePlugin;
 import net.bestemor.core.config.ConfigManager;
+import net.bestemor.core.metrics.Counter;
+import net.bestemor.core.metrics.Metrics;
+import net.bestemor.core.metrics.Watchdog;
+import net.bestemor.core.utils.InputParser;
+import net.bestemor.core.utils.InputParsers;
+import net.bestemor.core.utils.ParseResult;
+import net.bestemor.core.utils.SecondScheduler;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -12,24 +18,29 @@ import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
-import static net.bestemor.core.utils.Utils.hasComma;
-import static net.bestemor.core.utils.Utils.isNumeric;
-
 /**
  * Listener for chat input
- * Used for getting string and decimal input from players
+ * Used for getting string and decimal input from players.
+ * Each player can have one pending {@link ChatPrompt}, which is cancelled when the player
+ * types the cancel input, the prompt times out, or the player leaves.
  */
 public class ChatListener implements Listener {
 
-    private final Map<UUID, Consumer<String>> stringListeners = new HashMap<>();
-    private final Map<UUID, Consumer<BigDecimal>> decimalListeners = new HashMap<>();
+    private static final Counter PROMPTS = Metrics.counter("bestemorcore_chat_prompts_total", "Chat prompts started");
+    private static final Counter PROMPTS_COMPLETED = Metrics.counter("bestemorcore_chat_prompts_completed_total", "Chat prompts completed with valid input");
+    private static final Counter PROMPTS_CANCELLED = Metrics.counter("bestemorcore_chat_prompts_cancelled_total", "Chat prompts cancelled, replaced, timed out or abandoned");
+    private static final Counter INPUT_REJECTED = Metrics.counter("bestemorcore_chat_input_rejected_total", "Chat prompt inputs rejected as invalid");
+
+    private final Map<UUID, ChatPrompt> prompts = new ConcurrentHashMap<>();
 
     private String cancelInput;
+    private long defaultTimeout = TimeUnit.MINUTES.toSeconds(5);
     private final CorePlugin plugin;
 
     public ChatListener(CorePlugin plugin) {
@@ -46,6 +57,16 @@ public class ChatListener implements Listener {
         this.cancelInput = cancelInput;
     }
 
+    /**
+     * Updates the timeout used for new prompts
+     * @param time Time to wait for input, or 0 to wait indefinitely
+     * @param unit Unit of the time
+     */
+    @SuppressWarnings("unused")
+    public void setDefaultTimeout(long time, TimeUnit unit) {
+        this.defaultTimeout = unit.toSeconds(time);
+    }
+
     /**
      * Adds a listener for string input
      * @param player Player to listen to
@@ -53,8 +74,7 @@ public class ChatListener implements Listener {
      */
     @SuppressWarnings("unused")
     public void addStringListener(Player player, Consumer<String> result) {
-        player.sendMessage(ConfigManager.getMessage("messages.type_cancel").replace("%cancel%", cancelInput));
-        stringListeners.put(player.getUniqueId(), result);
+        addStringPrompt(player, result);
     }
 
     /**
@@ -64,48 +84,202 @@ public class ChatListener implements Listener {
      */
     @SuppressWarnings("unused")
     public void addDecimalListener(Player player, Consumer<BigDecimal> result) {
+        addDecimalPrompt(player, result);
+    }
+
+    /**
+     * Adds a listener for string input
+     * @param player Player to listen to
+     * @param result Consumer to accept the input
+     * @return Prompt which can be given a timeout and cancel callback
+     */
+    @SuppressWarnings("unused")
+    public ChatPrompt addStringPrompt(Player player, Consumer<String> result) {
+        return addPrompt(player, (p, message) -> complete(result, message));
+    }
+
+    /**
+     * Adds a listener for decimal input
+     * @param player Player to listen to
+     * @param result Consumer to accept the input
+     * @return Prompt which can be given a timeout and cancel callback
+     */
+    @SuppressWarnings("unused")
+    public ChatPrompt addDecimalPrompt(Player player, Consumer<BigDecimal> result) {
+        return addListener(player, InputParsers.decimal(), result);
+    }
+
+    /**
+     * Adds a listener for input parsed by an {@link InputParser}. Rejected input is answered
+     * with the message of its {@link ParseResult.ErrorCode}, and the player may try again
+     * @param player Player to listen to
+     * @param parser Parser for the input, called off the main thread
+     * @param result Consumer to accept the parsed input
+     * @return Prompt which can be given a timeout and cancel callback
+     */
+    @SuppressWarnings("unused")
+    public <T> ChatPrompt addListener(Player player, InputParser<T> parser, Consumer<T> result) {
+        return addPrompt(player, (p, message) -> {
+            ParseResult<T> parsed = parser.parse(strip(message));
+            if (!parsed.isSuccess()) {
+                p.sendMessage(ConfigManager.getMessage(parsed.getError().getMessagePath(), parsed.getError().getDefaultMessage()));
+                return null;
+            }
+            return complete(result, parsed.getValue());
+        });
+    }
+
+    /**
+     * Cancels the pending prompt of a player, if any
+     * @param player UUID of the player
+     */
+    @SuppressWarnings("unused")
+    public void cancel(UUID player) {
+        ChatPrompt prompt = prompts.remove(player);
+        if (prompt != null) {
+            cancelled(prompt);
+        }
+    }
+
+    /** @return Whether the player has a pending prompt */
+    @SuppressWarnings("unused")
+    public boolean hasPrompt(UUID player) {
+        return prompts.containsKey(player);
+    }
+
+    ChatPrompt getPrompt(UUID player) {
+        return prompts.get(player);
+    }
+
+    void cancel(ChatPrompt prompt) {
+        if (prompts.remove(prompt.getPlayer(), prompt)) {
+            cancelled(prompt);
+        }
+    }
+
+    /** Schedules a prompt to time out on the core's shared {@link SecondScheduler},
+     * or as a Bukkit task if the core has not been enabled */
+    void scheduleTimeout(ChatPrompt prompt, long seconds) {
+        if (seconds <= 0) {
+            prompt.setTimeout(null);
+            return;
+        }
+        SecondScheduler scheduler = CorePlugin.getSecondScheduler();
+        if (scheduler == null) {
+            scheduler = SecondScheduler.bukkit(plugin);
+        }
+        prompt.setTimeout(scheduler.runLater(() -> expire(prompt), seconds));
+    }
+
+    private ChatPrompt addPrompt(Player player, ChatPrompt.Handler handler) {
         player.sendMessage(ConfigManager.getMessage("messages.type_cancel").replace("%cancel%", cancelInput));
-        decimalListeners.put(player.getUniqueId(), result);
+        ChatPrompt prompt = new ChatPrompt(this, player.getUniqueId(), handler);
+        PROMPTS.increment();
+        scheduleTimeout(prompt, defaultTimeout);
+        ChatPrompt previous = prompts.put(player.getUniqueId(), prompt);
+        if (previous != null) {
+            cancelled(previous);
+        }
+        return prompt;
+    }
+
+    /** @return Action passing input to the consumer of a prompt on the main thread, timed by the {@link Watchdog} */
+    private static <T> Runnable complete(Consumer<T> result, T value) {
+        return () -> {
+            Watchdog.Watch watch = Watchdog.begin(result.getClass(), "chat prompt");
+            try {
+                result.accept(value);
+            } finally {
+                Watchdog.end(watch);
+            }
+        };
+    }
+
+    /** Cleans up a prompt removed without input, running its cancel callback on the main thread */
+    private void cancelled(ChatPrompt prompt) {
+        PROMPTS_CANCELLED.increment();
+        prompt.cancelTimeout();
+        Runnable onCancel = prompt.getOnCancel();
+        if (onCancel == null) {
+            return;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            onCancel.run();
+        } else if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, onCancel);
+        }
+    }
+
+    /** Cancels a prompt which timed out. Runs on the main thread */
+    private void expire(ChatPrompt prompt) {
+        if (prompts.remove(prompt.getPlayer(), prompt)) {
+            Player player = Bukkit.getPlayer(prompt.getPlayer());
+            if (player != null) {
+                player.sendMessage(ConfigManager.getMessage("messages.cancelled"));
+            }
+            cancelled(prompt);
+        }
+    }
+
+    /** Removes color codes, and any remaining '§' and '&' characters, in a single pass */
+    private static String strip(String message) {
+        StringBuilder builder = null;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            boolean code = c == '§' && i + 1 < message.length() && isColorCode(message.charAt(i + 1));
+            if (c != '§' && c != '&') {
+                if (builder != null) {
+                    builder.append(c);
+                }
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder(message.length());
+                builder.append(message, 0, i);
+            }
+            if (code) {
+                i++;
+            }
+        }
+        return builder == null ? message : builder.toString();
+    }
+
+    private static boolean isColorCode(char c) {
+        c = Character.toLowerCase(c);
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'k' && c <= 'o' || c == 'r' || c == 'x';
     }
 
     @EventHandler (priority = EventPriority.LOWEST)
     public void onChat(AsyncPlayerChatEvent event) {
 
         UUID uuid = event.getPlayer().getUniqueId();
+        ChatPrompt prompt = prompts.get(uuid);
+        if (prompt == null) {
+            return;
+        }
+        event.setCancelled(true);
+        Player player = event.getPlayer();
 
-        if (stringListeners.containsKey(uuid) || decimalListeners.containsKey(uuid)) {
-            event.setCancelled(true);
-
-            String message = ChatColor.stripColor(event.getMessage()).replace("§", "").replace("&", "");
-            Player player = event.getPlayer();
-
-            if (message.equalsIgnoreCase(cancelInput)) {
+        if (strip(event.getMessage()).equalsIgnoreCase(cancelInput)) {
+            if (prompts.remove(uuid, prompt)) {
                 player.sendMessage(ConfigManager.getMessage("messages.cancelled"));
-                decimalListeners.remove(uuid);
-                stringListeners.remove(uuid);
-
-            } else if (stringListeners.containsKey(uuid)) {
-                Consumer<String> consumer = stringListeners.get(uuid);
-                stringListeners.remove(uuid);
-                Bukkit.getScheduler().runTask(plugin, () -> consumer.accept(event.getMessage()));
-
-            } else if (decimalListeners.containsKey(uuid)) {
-                if (!isNumeric(message)) {
-                    player.sendMessage(hasComma(message) ? ConfigManager.getMessage("messages.use_dot") : ConfigManager.getMessage("messages.not_number"));
-                } else if (Double.parseDouble(message) < 0) {
-                    player.sendMessage(ConfigManager.getMessage("messages.negative_price"));
-                } else {
-                    Consumer<BigDecimal> consumer = decimalListeners.get(uuid);
-                    decimalListeners.remove(uuid);
-                    Bukkit.getScheduler().runTask(plugin, () -> consumer.accept(new BigDecimal(message)));
-                }
+                cancelled(prompt);
             }
+            return;
+        }
 
+        Runnable action = prompt.getHandler().handle(player, event.getMessage());
+        if (action == null) {
+            INPUT_REJECTED.increment();
+        } else if (prompts.remove(uuid, prompt)) {
+            PROMPTS_COMPLETED.increment();
+            prompt.cancelTimeout();
+            Bukkit.getScheduler().runTask(plugin, action);
         }
     }
 
     @EventHandler
     public void onLeave(PlayerQuitEvent event) {
-        stringListeners.remove(event.getPlayer().getUniqueId());
+        cancel(event.getPlayer().getUniqueId());
     }
 }
@@ -0,0 +1,88 @@
+package net.bestemor.core.listener;
+
+import net.bestemor.core.utils.SecondScheduler;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pending chat input prompt registered in the {@link ChatListener}.
+ * Can be given a timeout and a callback which runs if the prompt is cancelled.
+ */
+@SuppressWarnings("unused")
+public class ChatPrompt {
+
+    private final ChatListener listener;
+    private final UUID player;
+    private final Handler handler;
+
+    private volatile Runnable onCancel;
+    private SecondScheduler.Task timeout;
+
+    ChatPrompt(ChatListener listener, UUID player, Handler handler) {
+        this.listener = listener;
+        this.player = player;
+        this.handler = handler;
+    }
+
+    /** Sets a callback which runs on the main thread if the prompt is cancelled, times out,
+     * is replaced by another prompt, or the player leaves
+     * @param onCancel Callback to run
+     * @return This prompt */
+    public ChatPrompt onCancel(Runnable onCancel) {
+        this.onCancel = onCancel;
+        return this;
+    }
+
+    /** Sets how long the prompt waits for input before being cancelled, replacing the default timeout
+     * @param time Time to wait, or 0 to wait indefinitely
+     * @param unit Unit of the time
+     * @return This prompt */
+    public ChatPrompt timeout(long time, TimeUnit unit) {
+        listener.scheduleTimeout(this, unit.toSeconds(time));
+        return this;
+    }
+
+    /** Cancels the prompt, running the cancel callback */
+    public void cancel() {
+        listener.cancel(this);
+    }
+
+    /** @return Whether the prompt is still waiting for input */
+    public boolean isActive() {
+        return listener.getPrompt(player) == this;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+
+    Handler getHandler() {
+        return handler;
+    }
+
+    Runnable getOnCancel() {
+        return onCancel;
+    }
+
+    /** Replaces the timeout of this prompt, cancelling the previous one
+     * @param timeout New timeout, or null for none */
+    synchronized void setTimeout(SecondScheduler.Task timeout) {
+        if (this.timeout != null) {
+            this.timeout.cancel();
+        }
+        this.timeout = timeout;
+    }
+
+    /** Cancels the timeout of this prompt, if any */
+    void cancelTimeout() {
+        setTimeout(null);
+    }
+
+    /** Handles input for a prompt. Called on the async chat thread */
+    interface Handler {
+        /** @return Action completing the prompt on the main thread, or null if the input was rejected */
+        Runnable handle(Player player, String message);
+    }
+}
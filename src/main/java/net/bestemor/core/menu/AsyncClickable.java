@@ -0,0 +1,162 @@
+package net.bestemor.core.menu;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Represents a clickable item in a {@link MenuContent} where the click handler runs off the main thread.
+ * The handler and the continuation receive a {@link Click} snapshot taken on the main thread when the
+ * item was clicked, as the event and the inventory must not be read off the main thread or after the click.
+ * The result of the handler is passed to a continuation which runs on the main thread.
+ * Only one handler runs at a time for each player in a menu, further clicks are either dropped or queued.
+ * @param <T> Result passed from the async handler to the main thread continuation
+ */
+@SuppressWarnings("unused")
+public class AsyncClickable<T> extends Clickable {
+
+    /** What to do with clicks while a previous handler for the same player and menu is still running */
+    public enum Mode {
+        DROP, QUEUE
+    }
+
+    private static final Plugin plugin = JavaPlugin.getProvidingPlugin(AsyncClickable.class);
+
+    private final Function<Click, T> handler;
+    private final BiConsumer<Click, T> then;
+    private final Mode mode;
+
+    /**
+     * @param item item to place
+     * @param handler handler to run off the main thread
+     * @param then continuation to run on the main thread with the result of the handler
+     * @param mode what to do with clicks while the handler is running
+     */
+    public AsyncClickable(ItemStack item, Function<Click, T> handler, BiConsumer<Click, T> then, Mode mode) {
+        super(item, null);
+        this.handler = handler;
+        this.then = then;
+        this.mode = mode;
+    }
+
+    /**
+     * Creates an async clickable item which drops clicks while the handler is running
+     * @param item item to place
+     * @param handler handler to run off the main thread
+     * @param then continuation to run on the main thread with the result of the handler
+     * @return AsyncClickable
+     */
+    public static <T> AsyncClickable<T> of(ItemStack item, Function<Click, T> handler, BiConsumer<Click, T> then) {
+        return new AsyncClickable<>(item, handler, then, Mode.DROP);
+    }
+
+    /**
+     * Creates an async clickable item which queues clicks while the handler is running
+     * @param item item to place
+     * @param handler handler to run off the main thread
+     * @param then continuation to run on the main thread with the result of the handler
+     * @return AsyncClickable
+     */
+    public static <T> AsyncClickable<T> queued(ItemStack item, Function<Click, T> handler, BiConsumer<Click, T> then) {
+        return new AsyncClickable<>(item, handler, then, Mode.QUEUE);
+    }
+
+    @Override
+    public boolean isClickable() {
+        return true;
+    }
+
+    @Override
+    public void onClick(InventoryClickEvent event) {
+        execute(new Click(event), () -> {});
+    }
+
+    @Override
+    void onClick(Menu menu, InventoryClickEvent event) {
+        Click click = new Click(event);
+        menu.getClickGuard().submit(click.getPlayerId(), done -> execute(click, done), mode == Mode.QUEUE);
+    }
+
+    private void execute(Click click, Runnable done) {
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                T result;
+                try {
+                    result = handler.apply(click);
+                } catch (Throwable t) {
+                    plugin.getLogger().log(Level.SEVERE, "[BestemorCore] Async click handler failed", t);
+                    runSync(done, done);
+                    return;
+                }
+                runSync(() -> {
+                    try {
+                        then.accept(click, result);
+                    } finally {
+                        done.run();
+                    }
+                }, done);
+            });
+        } catch (IllegalPluginAccessException e) {
+            done.run();
+        }
+    }
+
+    /** Runs a task on the main thread, or only releases the click guard if the plugin has been disabled */
+    private static void runSync(Runnable task, Runnable done) {
+        try {
+            Bukkit.getScheduler().runTask(plugin, task);
+        } catch (IllegalPluginAccessException e) {
+            done.run();
+        }
+    }
+
+    /** Snapshot of a click, taken on the main thread. Safe to read from any thread */
+    public static final class Click {
+
+        private final UUID playerId;
+        private final int rawSlot;
+        private final ClickType type;
+        private final ItemStack item;
+
+        private Click(InventoryClickEvent event) {
+            this.playerId = event.getWhoClicked().getUniqueId();
+            this.rawSlot = event.getRawSlot();
+            this.type = event.getClick();
+            ItemStack current = event.getCurrentItem();
+            this.item = current == null ? null : current.clone();
+        }
+
+        /** @return UUID of the player who clicked */
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        /** @return Player who clicked, or null if offline. Only call this on the main thread */
+        public Player getPlayer() {
+            return Bukkit.getPlayer(playerId);
+        }
+
+        public int getRawSlot() {
+            return rawSlot;
+        }
+
+        public ClickType getType() {
+            return type;
+        }
+
+        /** @return Copy of the clicked item at the time of the click, or null if the slot was empty */
+        public ItemStack getItem() {
+            return item == null ? null : item.clone();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package net.bestemor.core.menu;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * Menu where content is rendered off the main thread. A cheap loading layout is shown
+ * when the menu is first opened, while {@link #onRender(MenuContent)} produces the full
+ * content into a detached {@link MenuContent}. The rendered content is then applied to
+ * the inventory on the main thread in a single step. Rendering is cancelled when the
+ * last viewer closes the menu, and restarted the next time it is opened.
+ */
+@SuppressWarnings("unused")
+public abstract class AsyncMenu extends Menu {
+
+    private final Plugin plugin = JavaPlugin.getProvidingPlugin(AsyncMenu.class);
+
+    private final AtomicReference<MenuContent> rendering = new AtomicReference<>();
+    private BukkitTask task;
+    private volatile boolean dirty = false;
+
+    protected AsyncMenu(int size, String name) {
+        super(size, name);
+    }
+
+    protected AsyncMenu(MenuConfig config) {
+        super(config);
+    }
+
+    /** Runs on the main thread when the menu is created. Should only place cheap
+     * placeholder items, as it blocks the tick.
+     * @param content Container of Clickables shown while rendering */
+    protected abstract void onLoading(MenuContent content);
+
+    /** Runs off the main thread every time the menu is rendered. Must not modify
+     * the inventory or any other server state.
+     * @param content Empty, detached container of Clickables which replaces the current content */
+    protected abstract void onRender(MenuContent content);
+
+    @Override
+    protected final void onCreate(MenuContent content) {
+        onLoading(content);
+    }
+
+    @Override
+    public void create() {
+        super.create();
+        render();
+    }
+
+    /** Renders the content asynchronously. If the menu is not yet created,
+     * the loading layout is applied instead. */
+    @Override
+    public void update() {
+        if (!isCreated()) {
+            super.update();
+        } else {
+            render();
+        }
+    }
+
+    @Override
+    public void open(Player player) {
+        boolean wasCreated = isCreated();
+        super.open(player);
+        if (wasCreated && dirty) {
+            render();
+        }
+    }
+
+    /** @return Whether the render producing the given content has been cancelled or replaced
+     * by a newer render. Can be used to stop long-running renders early.
+     * @param content Content passed to {@link #onRender(MenuContent)} */
+    protected boolean isCancelled(MenuContent content) {
+        return rendering.get() != content;
+    }
+
+    /** @return Whether a render is currently in progress */
+    public boolean isRendering() {
+        return rendering.get() != null;
+    }
+
+    private void render() {
+        MenuContent content = new MenuContent(getInventory().getSize());
+        if (task != null) {
+            task.cancel();
+        }
+        rendering.set(content);
+        dirty = false;
+        try {
+            task = Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> renderAsync(content));
+        } catch (IllegalPluginAccessException e) {
+            task = null;
+            discard(content);
+        }
+    }
+
+    private void renderAsync(MenuContent content) {
+        if (isCancelled(content)) {
+            return;
+        }
+        boolean scheduled = false;
+        try {
+            onRender(content);
+            if (!isCancelled(content) && plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> apply(content));
+                scheduled = true;
+            }
+        } catch (IllegalPluginAccessException e) {
+            // Plugin was disabled while rendering, the render is discarded
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.SEVERE, "[BestemorCore] Failed to render menu", t);
+        } finally {
+            if (!scheduled) {
+                discard(content);
+            }
+        }
+    }
+
+    /** Discards a render which will not be applied, so the menu is rendered again when next opened */
+    private void discard(MenuContent content) {
+        if (rendering.compareAndSet(content, null)) {
+            dirty = true;
+        }
+    }
+
+    private void apply(MenuContent content) {
+        if (!rendering.compareAndSet(content, null)) {
+            return;
+        }
+        task = null;
+
+        boolean profile = MenuProfiler.begin();
+        try {
+            getContent().replaceWith(content);
+            Map<Integer, Clickable> clickables = getContent().getClickables();
+
+            ItemStack[] items = new ItemStack[getInventory().getSize()];
+            for (Map.Entry<Integer, Clickable> entry : clickables.entrySet()) {
+                if (entry.getKey() < items.length && entry.getValue() != null) {
+                    items[entry.getKey()] = entry.getValue().getItem();
+                }
+            }
+            getInventory().setContents(items);
+            MenuProfiler.setItems(items.length);
+        } finally {
+            MenuProfiler.endUpdate(this, profile);
+        }
+    }
+
+    private void cancel() {
+        if (rendering.getAndSet(null) == null) {
+            return;
+        }
+        dirty = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @Override
+    void handleClose(InventoryCloseEvent event) {
+        super.handleClose(event);
+        if (!hasOtherViewers(event.getPlayer())) {
+            cancel();
+        }
+    }
+}
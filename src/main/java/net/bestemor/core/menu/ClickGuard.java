@@ -0,0 +1,49 @@
+package net.bestemor.core.menu;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of click handlers in flight for each player of a {@link Menu}, making sure
+ * only one handler runs at a time per player. Accessed from the main thread, except when a handler
+ * is released off the main thread because the plugin was disabled while it was running.
+ */
+class ClickGuard {
+
+    private final Map<UUID, Deque<Consumer<Runnable>>> inFlight = new HashMap<>();
+
+    /** Runs a handler if the player has no handler in flight, otherwise drops or queues it
+     * @param player Player who clicked
+     * @param handler Handler to run, which must call the provided callback when completed
+     * @param queue Whether the handler should be queued instead of dropped
+     * @return Whether the handler was run or queued */
+    synchronized boolean submit(UUID player, Consumer<Runnable> handler, boolean queue) {
+        Deque<Consumer<Runnable>> queued = inFlight.get(player);
+        if (queued != null) {
+            if (queue) {
+                queued.add(handler);
+            }
+            return queue;
+        }
+        inFlight.put(player, new ArrayDeque<>());
+        handler.accept(() -> complete(player));
+        return true;
+    }
+
+    private synchronized void complete(UUID player) {
+        Deque<Consumer<Runnable>> queued = inFlight.get(player);
+        if (queued == null) {
+            return;
+        }
+        Consumer<Runnable> next = queued.poll();
+        if (next == null) {
+            inFlight.remove(player);
+        } else {
+            next.accept(() -> complete(player));
+        }
+    }
+}
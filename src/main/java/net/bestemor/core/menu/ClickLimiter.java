@@ -0,0 +1,133 @@
+package net.bestemor.core.menu;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-player rate limiter for menu clicks, checked by {@link MenuListener} before any
+ * click handler runs. Uses a token bucket per player, optionally combined with a minimum
+ * interval between clicks on the same slot, tracked for each slot separately. Accepting a
+ * click does not allocate once the player has clicked a menu. Disabled by default, enable it with {@link #setEnabled(boolean)}.
+ * Only accessed from the main thread.
+ */
+public class ClickLimiter {
+
+    /** Raw slots of a double chest and the player inventory */
+    private static final int SLOTS = 90;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final Map<UUID, Bucket> buckets = new HashMap<>();
+
+    private boolean enabled = false;
+    private int capacity = 10;
+    private long refillNanos = TimeUnit.SECONDS.toNanos(1) / 20;
+    private long slotIntervalNanos = 0;
+
+    private long suppressed = 0;
+
+    /** Checks if a click should be handled, consuming a token if so
+     * @param player Player who clicked
+     * @param slot Raw slot clicked
+     * @return Whether the click is allowed */
+    public boolean tryClick(UUID player, int slot) {
+        return tryClick(player, slot, System.nanoTime());
+    }
+
+    /** @param now Current time from {@link System#nanoTime()} */
+    boolean tryClick(UUID player, int slot, long now) {
+        if (!enabled) {
+            return true;
+        }
+        Bucket bucket = buckets.get(player);
+        if (bucket == null) {
+            bucket = new Bucket(capacity, now);
+            buckets.put(player, bucket);
+        }
+
+        long refills = (now - bucket.lastRefill) / refillNanos;
+        if (refills > 0) {
+            bucket.tokens = (int) Math.min(capacity, bucket.tokens + refills);
+            bucket.lastRefill = bucket.tokens == capacity ? now : bucket.lastRefill + refills * refillNanos;
+        }
+
+        long[] slots = slotIntervalNanos > 0 && slot >= 0 ? bucket.slots(slot) : null;
+        if (bucket.tokens <= 0 || (slots != null && slots[slot] != NEVER && now - slots[slot] < slotIntervalNanos)) {
+            suppressed++;
+            return false;
+        }
+        bucket.tokens--;
+        if (slots != null) {
+            slots[slot] = now;
+        }
+        return true;
+    }
+
+    /** Removes the stored state of a player
+     * @param player UUID of the player */
+    public void remove(UUID player) {
+        buckets.remove(player);
+    }
+
+    /** @param enabled Whether clicks should be rate limited */
+    @SuppressWarnings("unused")
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** @param capacity Maximum amount of clicks a player can do in a burst */
+    @SuppressWarnings("unused")
+    public void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1! Got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /** @param clicksPerSecond Sustained amount of clicks allowed per second, at most one per nanosecond */
+    @SuppressWarnings("unused")
+    public void setRefillRate(int clicksPerSecond) {
+        if (clicksPerSecond < 1) {
+            throw new IllegalArgumentException("Refill rate must be at least 1! Got " + clicksPerSecond);
+        }
+        this.refillNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / clicksPerSecond);
+    }
+
+    /** Sets the minimum time between two clicks on the same slot
+     * @param interval Minimum interval, or 0 to disable
+     * @param unit Unit of the interval */
+    @SuppressWarnings("unused")
+    public void setSlotInterval(long interval, TimeUnit unit) {
+        this.slotIntervalNanos = unit.toNanos(interval);
+    }
+
+    /** @return Amount of clicks suppressed since the server started */
+    @SuppressWarnings("unused")
+    public long getSuppressed() {
+        return suppressed;
+    }
+
+    private static class Bucket {
+        private int tokens;
+        private long lastRefill;
+        private long[] slotClicks;
+
+        private Bucket(int tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        /** @return Last click time of each slot, allocated on first use and grown if a larger slot is clicked */
+        private long[] slots(int slot) {
+            if (slotClicks == null || slot >= slotClicks.length) {
+                int length = Math.max(SLOTS, slot + 1);
+                int old = slotClicks == null ? 0 : slotClicks.length;
+                slotClicks = slotClicks == null ? new long[length] : Arrays.copyOf(slotClicks, length);
+                Arrays.fill(slotClicks, old, length, NEVER);
+            }
+            return slotClicks;
+        }
+    }
+}
@@ -74,6 +74,11 @@ public class Clickable {
         }
     }
 
+    /** Called by {@link MenuListener} when this clickable is clicked in a menu */
+    void onClick(Menu menu, InventoryClickEvent event) {
+        onClick(event);
+    }
+
     public ItemStack getItem() {
         return item;
     }
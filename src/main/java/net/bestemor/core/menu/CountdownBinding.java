@@ -0,0 +1,71 @@
+package net.bestemor.core.menu;
+
+import net.bestemor.core.CorePlugin;
+import net.bestemor.core.config.ConfigManager;
+import net.bestemor.core.utils.TimingWheel;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/** Binding between a slot and the time left until a deadline, driven by the {@link CountdownTicker} */
+class CountdownBinding extends SlotBinding {
+
+    private final Instant deadline;
+    private final Function<String, Clickable> renderer;
+
+    private String rendered;
+    private TimingWheel.Timeout<Runnable> timeout;
+
+    CountdownBinding(int slot, Instant deadline, Function<String, Clickable> renderer) {
+        super(slot);
+        this.deadline = deadline;
+        this.renderer = renderer;
+    }
+
+    @Override
+    Clickable render() {
+        rendered = ConfigManager.getTimeLeft(deadline);
+        return renderer.apply(rendered);
+    }
+
+    @Override
+    void onAttach() {
+        if (!ConfigManager.getTimeLeft(deadline).equals(rendered)) {
+            refresh();
+        }
+        schedule();
+    }
+
+    @Override
+    void onDetach() {
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    void tick() {
+        timeout = null;
+        if (menu == null) {
+            return;
+        }
+        if (!ConfigManager.getTimeLeft(deadline).equals(rendered)) {
+            refresh();
+        }
+        schedule();
+    }
+
+    /** Schedules the next tick at the next second where the remaining minutes change */
+    private void schedule() {
+        CountdownTicker ticker = CorePlugin.getCountdownTicker();
+        if (ticker == null || deadline == null || deadline.getEpochSecond() == 0) {
+            return;
+        }
+        long remaining = deadline.getEpochSecond() - ticker.getSecond();
+        if (remaining <= 0) {
+            return;
+        }
+        long untilChange = remaining % 60 == 0 ? 60 : remaining % 60;
+        timeout = ticker.schedule(this, ticker.getSecond() + untilChange);
+    }
+}
@@ -0,0 +1,83 @@
+package net.bestemor.core.menu;
+
+import net.bestemor.core.utils.SecondScheduler;
+import net.bestemor.core.utils.TimingWheel;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Instant;
+import java.util.logging.Level;
+
+/**
+ * Core-owned ticker keeping countdown slots in all open menus up to date. Remaining time is
+ * shown with minute resolution, so each countdown only changes once a minute, at the second
+ * matching its deadline. Countdowns are kept in a timing wheel with one bucket per second
+ * of the minute, and each second only the countdowns due at that second are re-rendered.
+ * The wheel is shared with other second-resolution timeouts of the core, such as chat prompts.
+ */
+public class CountdownTicker implements Runnable, SecondScheduler {
+
+    private final Plugin plugin;
+    private final TimingWheel<Runnable> wheel = new TimingWheel<>(60);
+
+    private long second;
+    private BukkitTask task;
+
+    public CountdownTicker(Plugin plugin) {
+        this.plugin = plugin;
+        this.second = Instant.now().getEpochSecond();
+    }
+
+    /** Starts ticking the countdowns */
+    public void start() {
+        if (task == null) {
+            second = Instant.now().getEpochSecond();
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this, 20, 20);
+        }
+    }
+
+    /** Stops ticking the countdowns */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** @return Amount of countdowns and other tasks currently scheduled */
+    @SuppressWarnings("unused")
+    public int getScheduled() {
+        return wheel.size();
+    }
+
+    /** Schedules a countdown to be ticked at the given epoch second */
+    TimingWheel.Timeout<Runnable> schedule(CountdownBinding binding, long epochSecond) {
+        return wheel.schedule(binding::tick, epochSecond - second);
+    }
+
+    @Override
+    public Task runLater(Runnable task, long seconds) {
+        return wheel.schedule(task, seconds)::cancel;
+    }
+
+    /** @return Epoch second the wheel has been advanced to */
+    long getSecond() {
+        return second;
+    }
+
+    @Override
+    public void run() {
+        long now = Instant.now().getEpochSecond();
+        while (second < now) {
+            second++;
+            for (Runnable task : wheel.advance()) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    plugin.getLogger().log(Level.SEVERE, "[BestemorCore] Scheduled countdown task failed", t);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package net.bestemor.core.menu;
 
 import net.bestemor.core.CorePlugin;
+import net.bestemor.core.metrics.Histogram;
+import net.bestemor.core.metrics.Metrics;
+import net.bestemor.core.metrics.Watchdog;
+import net.bestemor.core.utils.PermissionCache;
 import net.bestemor.core.utils.Utils;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Entity;
@@ -15,6 +19,9 @@ import java.util.*;
 
 public abstract class Menu {
 
+    private static final Histogram CREATE_TIME = Metrics.histogram("bestemorcore_menu_create_seconds", "Time creating menus");
+    private static final Histogram UPDATE_TIME = Metrics.histogram("bestemorcore_menu_update_seconds", "Time updating menus");
+
     protected final MenuListener listener;
 
     private final MenuContent content;
@@ -22,6 +29,7 @@ public abstract class Menu {
 
     private boolean isCreated = false;
     private final String title;
+    private ClickGuard clickGuard;
 
     @Deprecated
     public Menu(MenuListener listener, int size, String name) {
@@ -29,7 +37,8 @@ public abstract class Menu {
         this.content = new MenuContent(size);
 
         this.title = Utils.parsePAPI(name);
-        this.inventory = Bukkit.createInventory(null, size, title);
+        this.inventory = Bukkit.createInventory(new MenuHolder(this), size, title);
+        MenuProfiler.track(this);
     }
 
     public Menu(int size, String name) {
@@ -37,7 +46,8 @@ public abstract class Menu {
         this.content = new MenuContent(size);
 
         this.title = Utils.parsePAPI(name);
-        this.inventory = Bukkit.createInventory(null, size, title);
+        this.inventory = Bukkit.createInventory(new MenuHolder(this), size, title);
+        MenuProfiler.track(this);
     }
 
     public Menu(MenuConfig config) {
@@ -45,7 +55,8 @@ public abstract class Menu {
         this.content = new MenuContent(config.getSize());
 
         this.title = Utils.parsePAPI(config.getTitle());
-        this.inventory = Bukkit.createInventory(null, config.getSize(), title);
+        this.inventory = Bukkit.createInventory(new MenuHolder(this), config.getSize(), title);
+        MenuProfiler.track(this);
     }
 
     protected void onClick(InventoryClickEvent event) {}
@@ -53,30 +64,106 @@ public abstract class Menu {
     protected void onDrag(InventoryDragEvent event) {}
     protected void onClose(InventoryCloseEvent event) {}
 
+    /** Called by {@link MenuListener} when a viewer closes this menu */
+    void handleClose(InventoryCloseEvent event) {
+        onClose(event);
+        if (!hasOtherViewers(event.getPlayer())) {
+            content.detach();
+        }
+    }
+
+    /** @return Whether anyone other than the given player is viewing this menu */
+    boolean hasOtherViewers(HumanEntity player) {
+        for (HumanEntity viewer : getViewers()) {
+            if (!viewer.getUniqueId().equals(player.getUniqueId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Replaces the clickable in a single slot and sends only that slot to the viewers
+     * @param slot Inventory slot
+     * @param clickable New clickable */
+    void renderSlot(int slot, Clickable clickable) {
+        content.setClickable(slot, clickable);
+        inventory.setItem(slot, clickable == null ? null : clickable.getItem());
+        MenuProfiler.setItems(1);
+    }
+
+    /** @return Menu this inventory belongs to, used to account pages and viewer inventories
+     * to their parent menu when profiling */
+    Menu getOwner() {
+        return this;
+    }
+
     /** Updates menu and applies clickables from MenuContent */
     public void update() {
-        onUpdate(content);
-        for (Integer slot : content.getClickables().keySet()) {
-            if (content.getClickables().get(slot) == null) {
-                inventory.setItem(slot, null);
-            } else {
-                inventory.setItem(slot, content.getClickables().get(slot).getItem());
+        long start = Metrics.start();
+        boolean profile = MenuProfiler.begin();
+        try {
+            Watchdog.Watch watch = Watchdog.begin(getClass(), "update");
+            try {
+                onUpdate(content);
+            } finally {
+                Watchdog.end(watch);
             }
+            for (Integer slot : content.getClickables().keySet()) {
+                if (content.getClickables().get(slot) == null) {
+                    inventory.setItem(slot, null);
+                } else {
+                    inventory.setItem(slot, content.getClickables().get(slot).getItem());
+                }
+            }
+            MenuProfiler.setItems(content.getClickables().size());
+        } finally {
+            MenuProfiler.endUpdate(this, profile);
+            UPDATE_TIME.stop(start);
         }
     }
 
     protected void onUpdate(MenuContent content) {}
 
+    /** Requests an update from the core {@link MenuScheduler}. Multiple requests within
+     * the same tick result in a single update */
+    @SuppressWarnings("unused")
+    public void requestUpdate() {
+        MenuScheduler scheduler = CorePlugin.getMenuScheduler();
+        if (scheduler == null) {
+            update();
+        } else {
+            scheduler.requestUpdate(this);
+        }
+    }
+
+    /** Updates this menu periodically using the core {@link MenuScheduler}, only while it has viewers
+     * @param ticks Ticks between each update, or 0 to stop refreshing */
+    @SuppressWarnings("unused")
+    public void setRefreshInterval(long ticks) {
+        MenuScheduler scheduler = CorePlugin.getMenuScheduler();
+        if (scheduler == null) {
+            throw new IllegalStateException("No MenuScheduler is running");
+        }
+        scheduler.register(this, ticks);
+    }
+
     /** Runs when menu is initially created
      * @param content Container of Clickables which is applied to the inventory */
     protected abstract void onCreate(MenuContent content);
 
     /** Forcibly creates and updates the menu */
     public void create() {
-        inventory.clear();
-        onCreate(content);
-        update();
-        isCreated = true;
+        long start = Metrics.start();
+        boolean profile = MenuProfiler.begin();
+        try {
+            inventory.clear();
+            onCreate(content);
+            update();
+            isCreated = true;
+        } finally {
+            MenuProfiler.endCreate(this, profile);
+            CREATE_TIME.stop(start);
+        }
     }
 
     /** Creates and updates the menu if opened for the first time,
@@ -91,6 +178,7 @@ public abstract class Menu {
         }
         player.openInventory(inventory);
         listener.registerMenu(player.getUniqueId(), this);
+        content.attach(this);
     }
 
     /** @return  Whether specified the player currently has this menu opened */
@@ -116,6 +204,34 @@ public abstract class Menu {
         inventory.getViewers().removeIf(v -> v.getUniqueId().equals(player.getUniqueId()));
     }
 
+    /** @return Clickable placed in the given slot, or null if there is none
+     * @param slot Raw inventory slot */
+    protected Clickable getClickable(int slot) {
+        return content.getClickables().get(slot);
+    }
+
+    /** @return Guard keeping track of async click handlers in flight for this menu */
+    ClickGuard getClickGuard() {
+        if (clickGuard == null) {
+            clickGuard = new ClickGuard();
+        }
+        return clickGuard;
+    }
+
+    /** @return Whether this menu has been created */
+    protected boolean isCreated() {
+        return isCreated;
+    }
+
+    /** Checks a permission through the core permission cache, for deciding which buttons to show
+     * @param player Player to check
+     * @param node Permission node, preferably a constant
+     * @return Whether the player has the permission */
+    protected boolean hasPermission(Player player, String node) {
+        PermissionCache permissions = CorePlugin.getPermissionCache();
+        return permissions == null ? player.hasPermission(node) : permissions.has(player, node);
+    }
+
     /** @return Content containing clickables for this menu */
     public MenuContent getContent() {
         return content;
@@ -3,15 +3,18 @@ package net.bestemor.core.menu;
 import net.bestemor.core.config.ConfigManager;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
 
 public class MenuContent {
 
     private final int size;
     private final Map<Integer, Clickable> clickables = new HashMap<>();
 
+    private final Map<Integer, SlotBinding> bindings = new HashMap<>();
+    private Menu attachedTo = null;
+
     private ItemStack lastFilledItem = null;
 
     public MenuContent(int size) {
@@ -86,6 +89,91 @@ public class MenuContent {
         fillSlots(item, slots.stream().mapToInt(i -> i).toArray());
     }
 
+    /** Binds a slot to an observable value. Whenever the value changes while the menu has viewers,
+     * only this slot is re-rendered and sent. Replaces any previous binding in the same slot.
+     * @param slot inventory slot
+     * @param value value to observe
+     * @param render function rendering the clickable shown for a value */
+    @SuppressWarnings("unused")
+    public <T> void bind(int slot, ObservableValue<T> value, Function<T, Clickable> render) {
+        if (slot < 0) {
+            return;
+        }
+        addBinding(new ValueBinding<>(slot, value, render));
+    }
+
+    /** Shows the time left until a deadline in a slot, formatted by {@link ConfigManager#getTimeLeft(Instant)}.
+     * While the menu has viewers, the slot is re-rendered and sent only when the formatted time changes.
+     * Replaces any previous binding in the same slot.
+     * @param slot inventory slot
+     * @param deadline instant to count down to
+     * @param render function rendering the clickable shown for the formatted time left */
+    @SuppressWarnings("unused")
+    public void setCountdown(int slot, Instant deadline, Function<String, Clickable> render) {
+        if (slot < 0) {
+            return;
+        }
+        addBinding(new CountdownBinding(slot, deadline, render));
+    }
+
+    /** Removes the binding of a slot, keeping the last rendered clickable
+     * @param slot inventory slot */
+    @SuppressWarnings("unused")
+    public void unbind(int slot) {
+        SlotBinding binding = bindings.remove(slot);
+        if (binding != null && attachedTo != null) {
+            binding.detach();
+        }
+    }
+
+    void addBinding(SlotBinding binding) {
+        unbind(binding.slot);
+        bindings.put(binding.slot, binding);
+        clickables.put(binding.slot, binding.render());
+        if (attachedTo != null) {
+            binding.attach(attachedTo);
+        }
+    }
+
+    /** Replaces all clickables and bindings with the ones from another content */
+    void replaceWith(MenuContent other) {
+        Menu menu = attachedTo;
+        detach();
+        clickables.clear();
+        clickables.putAll(other.clickables);
+        bindings.clear();
+        bindings.putAll(other.bindings);
+        lastFilledItem = other.lastFilledItem;
+        if (menu != null) {
+            attach(menu);
+        }
+    }
+
+    /** Starts listening to all bindings, rendering changes to the given menu */
+    void attach(Menu menu) {
+        if (attachedTo == menu) {
+            return;
+        }
+        if (attachedTo != null) {
+            detach();
+        }
+        attachedTo = menu;
+        for (SlotBinding binding : new ArrayList<>(bindings.values())) {
+            binding.attach(menu);
+        }
+    }
+
+    /** Stops listening to all bindings */
+    void detach() {
+        if (attachedTo == null) {
+            return;
+        }
+        attachedTo = null;
+        for (SlotBinding binding : bindings.values()) {
+            binding.detach();
+        }
+    }
+
     protected ItemStack getLastFilledItem() {
         return lastFilledItem;
     }
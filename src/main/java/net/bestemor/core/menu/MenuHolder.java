@@ -0,0 +1,27 @@
+package net.bestemor.core.menu;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * {@link InventoryHolder} of every {@link Menu} inventory. Used by {@link MenuListener}
+ * to route inventory events directly to the owning menu.
+ */
+public final class MenuHolder implements InventoryHolder {
+
+    private final Menu menu;
+
+    MenuHolder(Menu menu) {
+        this.menu = menu;
+    }
+
+    /** @return Menu owning the inventory */
+    public Menu getMenu() {
+        return menu;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return menu.getInventory();
+    }
+}
@@ -1,5 +1,9 @@
 package net.bestemor.core.menu;
 
+import net.bestemor.core.metrics.Counter;
+import net.bestemor.core.metrics.Histogram;
+import net.bestemor.core.metrics.Metrics;
+import net.bestemor.core.metrics.Watchdog;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -8,13 +12,23 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.InventoryHolder;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Routes inventory events to the {@link Menu} owning the inventory, identified by its {@link MenuHolder}.
+ * Keeps track of which menu each player has opened.
+ */
 public class MenuListener implements Listener {
 
+    private static final Counter CLICKS = Metrics.counter("bestemorcore_menu_clicks_total", "Clicks in menus");
+    private static final Counter CLICKS_LIMITED = Metrics.counter("bestemorcore_menu_clicks_limited_total", "Clicks in menus dropped by the click limiter");
+    private static final Histogram CLICK_TIME = Metrics.histogram("bestemorcore_menu_click_seconds", "Time handling clicks in menus");
+
     private final Map<UUID, OpenedMenu> openMenus = new HashMap<>();
+    private final ClickLimiter clickLimiter = new ClickLimiter();
 
     /** Registers menu
      * @param menu Menu to register **/
@@ -31,63 +45,77 @@ public class MenuListener implements Listener {
 
     @EventHandler (priority = EventPriority.LOWEST)
     public void onClick(InventoryClickEvent event) {
+        InventoryHolder holder = event.getInventory().getHolder();
+        if (!(holder instanceof MenuHolder)) {
+            return;
+        }
 
-        Player player = (Player) event.getWhoClicked();
-
-        OpenedMenu openedMenu = openMenus.get(player.getUniqueId());
-        if (openedMenu != null) {
-            Menu menu = openedMenu.getMenu();
-            int slot = event.getRawSlot();
-            event.setCancelled(true);
+        Menu menu = ((MenuHolder) holder).getMenu();
+        event.setCancelled(true);
+        CLICKS.increment();
+        if (!clickLimiter.tryClick(event.getWhoClicked().getUniqueId(), event.getRawSlot())) {
+            CLICKS_LIMITED.increment();
+            return;
+        }
+        long start = Metrics.start();
+        Watchdog.Watch watch = Watchdog.begin(menu.getClass(), "click");
+        try {
             menu.onClick(event);
-            if (menu.getContent().getClickables().containsKey(slot) && menu.getContent().getClickables().get(slot) != null) {
-                menu.getContent().getClickables().get(slot).onClick(event);
+            Clickable clickable = menu.getClickable(event.getRawSlot());
+            if (clickable != null) {
+                clickable.onClick(menu, event);
             }
+        } finally {
+            Watchdog.end(watch);
+            CLICK_TIME.stop(start);
         }
     }
 
     @EventHandler (priority = EventPriority.LOWEST)
     public void onDrag(InventoryDragEvent event) {
-
-        Player player = (Player) event.getWhoClicked();
-        OpenedMenu openedMenu = openMenus.get(player.getUniqueId());
-        if (openedMenu != null) {
-            event.setCancelled(true);
-            openedMenu.getMenu().onDrag(event);
+        InventoryHolder holder = event.getInventory().getHolder();
+        if (!(holder instanceof MenuHolder)) {
+            return;
         }
+
+        event.setCancelled(true);
+        ((MenuHolder) holder).getMenu().onDrag(event);
     }
 
     @EventHandler (priority = EventPriority.LOWEST)
     public void onClose(InventoryCloseEvent event) {
-
-        UUID playerUUID = event.getPlayer().getUniqueId();
-
-        OpenedMenu openedMenu = openMenus.get(playerUUID);
-
-        if (openedMenu == null) {
+        InventoryHolder holder = event.getInventory().getHolder();
+        if (!(holder instanceof MenuHolder)) {
             return;
         }
 
-        if (!openedMenu.getMenu().getTitle().equals(event.getView().getTitle())) {
-            return;
+        Menu menu = ((MenuHolder) holder).getMenu();
+        UUID playerUUID = event.getPlayer().getUniqueId();
+        OpenedMenu openedMenu = openMenus.get(playerUUID);
+        if (openedMenu != null && openedMenu.getMenu() == menu) {
+            openMenus.remove(playerUUID);
         }
-        openMenus.remove(playerUUID);
-        openedMenu.menu.onClose(event);
+        menu.handleClose(event);
     }
 
-
-
     @EventHandler (priority = EventPriority.LOWEST)
     public void onQuit(PlayerQuitEvent event) {
         UUID playerUUID = event.getPlayer().getUniqueId();
+        clickLimiter.remove(playerUUID);
         OpenedMenu openedMenu = openMenus.get(playerUUID);
         if (openedMenu != null) {
-            openedMenu.menu.onClose(new InventoryCloseEvent(event.getPlayer().getOpenInventory()));
+            openedMenu.menu.handleClose(new InventoryCloseEvent(event.getPlayer().getOpenInventory()));
             openMenus.remove(playerUUID);
         }
     }
 
 
+    /** @return Rate limiter applied to clicks in all menus */
+    @SuppressWarnings("unused")
+    public ClickLimiter getClickLimiter() {
+        return clickLimiter;
+    }
+
     /** Closes all currently opened menus  */
     public void closeAll() {
         List<Menu> menus = new ArrayList<>(openMenus.values()).stream()
@@ -0,0 +1,197 @@
+package net.bestemor.core.menu;
+
+import net.bestemor.core.metrics.Metrics;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * Collects render statistics per menu class while {@link Metrics} are enabled: time spent creating and
+ * updating, items sent to inventories, live instances, cached pages and an estimate of the memory held by
+ * their content. Pages of a {@link PagingMenu} and viewer inventories of a {@link SharedMenu} are accounted
+ * to the class of the menu owning them. Nested creates and updates are only timed once, by the outermost
+ * menu. Menus created while metrics are disabled are not tracked. Only accessed from the main thread.
+ */
+@SuppressWarnings("unused")
+public final class MenuProfiler {
+
+    /** Rough sizes of a clickable, an item, and item meta with a name and a few lines of lore */
+    private static final long CLICKABLE_BYTES = 32;
+    private static final long ITEM_BYTES = 96;
+    private static final long META_BYTES = 640;
+
+    private static final Map<Class<?>, Stats> stats = new HashMap<>();
+    private static final Map<Menu, Boolean> live = new WeakHashMap<>();
+
+    private static int depth = 0;
+    private static long start;
+    private static long pendingItems;
+
+    private MenuProfiler() {}
+
+    /** Registers a created menu instance */
+    static void track(Menu menu) {
+        if (Metrics.isEnabled()) {
+            live.put(menu, Boolean.TRUE);
+        }
+    }
+
+    /** Starts profiling a create or update. Must be followed by {@link #endCreate(Menu, boolean)}
+     * or {@link #endUpdate(Menu, boolean)}, preferably in a finally block
+     * @return Whether the call is profiled, to be passed to the end method */
+    static boolean begin() {
+        if (!Metrics.isEnabled()) {
+            return false;
+        }
+        if (depth++ == 0) {
+            start = System.nanoTime();
+            pendingItems = 0;
+        }
+        return true;
+    }
+
+    static void endCreate(Menu menu, boolean profiled) {
+        if (profiled && --depth == 0) {
+            Stats stats = getStats(menu);
+            stats.creates++;
+            stats.createNanos += System.nanoTime() - start;
+        }
+    }
+
+    static void endUpdate(Menu menu, boolean profiled) {
+        if (profiled && --depth == 0) {
+            Stats stats = getStats(menu);
+            stats.updates++;
+            stats.updateNanos += System.nanoTime() - start;
+            stats.setItems += pendingItems;
+        }
+    }
+
+    /** Counts slots sent to the inventory of a menu. Only slots sent while updating are counted,
+     * not those sent while creating or by single slot renders
+     * @param amount Amount of slots set */
+    static void setItems(int amount) {
+        if (depth > 0) {
+            pendingItems += amount;
+        }
+    }
+
+    /** Resets all collected statistics. Live instances are still tracked */
+    public static void reset() {
+        stats.clear();
+    }
+
+    /** @return Statistics of all profiled menu classes, in no particular order. Memory is estimated
+     * when called from the amount of clickables, items and item meta, without reading the meta itself */
+    public static List<Profile> getProfiles() {
+        Map<Class<?>, Profile> profiles = new HashMap<>();
+        stats.forEach((type, collected) -> profiles.put(type, new Profile(type, collected)));
+
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Menu menu : new ArrayList<>(live.keySet())) {
+            Menu owner = menu.getOwner();
+            Profile profile = profiles.computeIfAbsent(owner.getClass(), type -> new Profile(type, new Stats()));
+            if (owner == menu) {
+                profile.instances++;
+                if (menu instanceof PagingMenu) {
+                    profile.cachedPages += ((PagingMenu) menu).getPages();
+                    profile.estimatedBytes += estimate(((PagingMenu) menu).getPagingContent().getClickables(), visited);
+                }
+            }
+            profile.estimatedBytes += estimate(menu.getContent().getClickables().values(), visited);
+        }
+        return new ArrayList<>(profiles.values());
+    }
+
+    private static Stats getStats(Menu menu) {
+        return stats.computeIfAbsent(menu.getOwner().getClass(), type -> new Stats());
+    }
+
+    /** Estimates the memory held by clickables, skipping clickables and items already visited.
+     * Only checks whether items have meta, as reading it clones the meta */
+    private static long estimate(Collection<Clickable> clickables, Set<Object> visited) {
+        long bytes = 0;
+        for (Clickable clickable : clickables) {
+            if (clickable == null || !visited.add(clickable)) {
+                continue;
+            }
+            bytes += CLICKABLE_BYTES;
+            ItemStack item = clickable.getItem();
+            if (item == null || !visited.add(item)) {
+                continue;
+            }
+            bytes += item.hasItemMeta() ? ITEM_BYTES + META_BYTES : ITEM_BYTES;
+        }
+        return bytes;
+    }
+
+    private static class Stats {
+        private long creates;
+        private long createNanos;
+        private long updates;
+        private long updateNanos;
+        private long setItems;
+    }
+
+    /** Statistics of a single menu class */
+    public static class Profile {
+
+        private final Class<?> type;
+        private final Stats stats;
+        private int instances;
+        private int cachedPages;
+        private long estimatedBytes;
+
+        private Profile(Class<?> type, Stats stats) {
+            this.type = type;
+            this.stats = stats;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public long getCreates() {
+            return stats.creates;
+        }
+
+        /** @return Total time spent creating menus of this class in nanoseconds */
+        public long getCreateNanos() {
+            return stats.createNanos;
+        }
+
+        public long getUpdates() {
+            return stats.updates;
+        }
+
+        /** @return Total time spent updating menus of this class in nanoseconds */
+        public long getUpdateNanos() {
+            return stats.updateNanos;
+        }
+
+        /** @return Total amount of slots set in inventories of this class while updating */
+        public long getSetItems() {
+            return stats.setItems;
+        }
+
+        /** @return Average amount of slots set per update */
+        public double getSetItemsPerUpdate() {
+            return stats.updates == 0 ? 0 : stats.setItems / (double) stats.updates;
+        }
+
+        /** @return Amount of instances not yet garbage collected */
+        public int getInstances() {
+            return instances;
+        }
+
+        /** @return Amount of pages held by paging menus of this class */
+        public int getCachedPages() {
+            return cachedPages;
+        }
+
+        /** @return Rough estimate of memory held by the content of all instances in bytes */
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+    }
+}
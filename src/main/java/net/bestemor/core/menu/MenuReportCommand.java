@@ -0,0 +1,107 @@
+package net.bestemor.core.menu;
+
+import net.bestemor.core.command.ISubCommand;
+import net.bestemor.core.metrics.Metrics;
+import org.bukkit.command.CommandSender;
+
+import java.util.*;
+
+/**
+ * Subcommand showing the menu classes collected by {@link MenuProfiler}, e.g. "/plugin menus memory" to list
+ * the menus holding the most memory first, or "/plugin menus reset" to reset the statistics.
+ */
+@SuppressWarnings("unused")
+public class MenuReportCommand implements ISubCommand {
+
+    private static final int MAX_LINES = 10;
+
+    private static final Map<String, Comparator<MenuProfiler.Profile>> SORTS = new LinkedHashMap<>();
+
+    static {
+        SORTS.put("time", Comparator.comparingLong(p -> p.getCreateNanos() + p.getUpdateNanos()));
+        SORTS.put("updates", Comparator.comparingLong(MenuProfiler.Profile::getUpdates));
+        SORTS.put("items", Comparator.comparingDouble(MenuProfiler.Profile::getSetItemsPerUpdate));
+        SORTS.put("instances", Comparator.comparingInt(MenuProfiler.Profile::getInstances));
+        SORTS.put("pages", Comparator.comparingInt(MenuProfiler.Profile::getCachedPages));
+        SORTS.put("memory", Comparator.comparingLong(MenuProfiler.Profile::getEstimatedBytes));
+    }
+
+    @Override
+    public List<String> getCompletion(String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2) {
+            List<String> options = new ArrayList<>(SORTS.keySet());
+            options.add("reset");
+            for (String option : options) {
+                if (option.startsWith(args[1].toLowerCase())) {
+                    completions.add(option);
+                }
+            }
+        }
+        return completions;
+    }
+
+    @Override
+    public void run(CommandSender sender, String[] args) {
+        if (!Metrics.isEnabled()) {
+            sender.sendMessage("§cMetrics are disabled");
+            return;
+        }
+        String sort = args.length >= 2 ? args[1].toLowerCase() : "time";
+        if (sort.equals("reset")) {
+            MenuProfiler.reset();
+            sender.sendMessage("§bMenu statistics have been reset");
+            return;
+        }
+        Comparator<MenuProfiler.Profile> comparator = SORTS.get(sort);
+        if (comparator == null) {
+            sender.sendMessage("§cUnknown sort " + sort + ", expected one of " + String.join(", ", SORTS.keySet()));
+            return;
+        }
+
+        List<MenuProfiler.Profile> profiles = MenuProfiler.getProfiles();
+        profiles.sort(comparator.reversed());
+        sender.sendMessage("§l§m------§r §b§lMenus by " + sort + " §r§l§m------");
+        for (MenuProfiler.Profile profile : profiles.subList(0, Math.min(MAX_LINES, profiles.size()))) {
+            sender.sendMessage("§b" + getName(profile.getType()) + "§7: "
+                    + profile.getInstances() + " live, "
+                    + profile.getCachedPages() + " pages, ~"
+                    + formatBytes(profile.getEstimatedBytes()));
+            sender.sendMessage("§7  create " + profile.getCreates() + "x " + formatAverage(profile.getCreateNanos(), profile.getCreates())
+                    + ", update " + profile.getUpdates() + "x " + formatAverage(profile.getUpdateNanos(), profile.getUpdates())
+                    + ", " + String.format("%.1f", profile.getSetItemsPerUpdate()) + " items/update");
+        }
+        if (profiles.size() > MAX_LINES) {
+            sender.sendMessage("§7... and " + (profiles.size() - MAX_LINES) + " more");
+        }
+    }
+
+    private String getName(Class<?> type) {
+        String name = type.getSimpleName();
+        return name.isEmpty() ? type.getName() : name;
+    }
+
+    private String formatAverage(long nanos, long count) {
+        return count == 0 ? "-" : String.format("%.2fms", nanos / (double) count / 1_000_000);
+    }
+
+    private String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+        return String.format("%.1fMB", bytes / (1024.0 * 1024));
+    }
+
+    @Override
+    public String getDescription() {
+        return "Show menu render statistics";
+    }
+
+    @Override
+    public String getUsage() {
+        return "[time|updates|items|instances|pages|memory|reset]";
+    }
+}
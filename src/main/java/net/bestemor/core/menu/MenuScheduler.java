@@ -0,0 +1,119 @@
+package net.bestemor.core.menu;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Core-owned scheduler refreshing menus on the main thread. Menus registered with an
+ * interval are only updated while they have viewers, and multiple update requests for
+ * the same menu within one tick are merged into a single update. Updates are limited by
+ * a per-tick time budget, and menus exceeding the budget are carried over to the next tick.
+ */
+public class MenuScheduler implements Runnable {
+
+    private final Plugin plugin;
+
+    private final Map<Menu, Refresh> refreshing = new WeakHashMap<>();
+    private final Set<Menu> pending = new LinkedHashSet<>();
+
+    private long tickBudget = TimeUnit.MILLISECONDS.toNanos(2);
+    private long tick = 0;
+    private BukkitTask task;
+
+    public MenuScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Starts ticking the scheduler */
+    public void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+        }
+    }
+
+    /** Stops ticking the scheduler and discards all pending updates */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        pending.clear();
+    }
+
+    /** Registers a menu to be updated periodically while it has viewers
+     * @param menu Menu to refresh
+     * @param interval Ticks between each update. Values less than 1 unregisters the menu */
+    public void register(Menu menu, long interval) {
+        if (interval < 1) {
+            refreshing.remove(menu);
+        } else {
+            refreshing.put(menu, new Refresh(interval, tick + interval));
+        }
+    }
+
+    /** Stops refreshing a menu periodically
+     * @param menu Menu to unregister */
+    public void unregister(Menu menu) {
+        refreshing.remove(menu);
+    }
+
+    /** Queues a menu for update. Menus already queued are only updated once
+     * @param menu Menu to update */
+    public void requestUpdate(Menu menu) {
+        pending.add(menu);
+    }
+
+    /** Sets the maximum time spent updating menus each tick
+     * @param time Time budget
+     * @param unit Unit of the time budget */
+    @SuppressWarnings("unused")
+    public void setTickBudget(long time, TimeUnit unit) {
+        this.tickBudget = unit.toNanos(time);
+    }
+
+    /** @return Amount of menus waiting to be updated */
+    @SuppressWarnings("unused")
+    public int getPending() {
+        return pending.size();
+    }
+
+    @Override
+    public void run() {
+        tick++;
+        for (Map.Entry<Menu, Refresh> entry : refreshing.entrySet()) {
+            Refresh refresh = entry.getValue();
+            if (tick < refresh.next) {
+                continue;
+            }
+            refresh.next = tick + refresh.interval;
+            if (!entry.getKey().getViewers().isEmpty()) {
+                pending.add(entry.getKey());
+            }
+        }
+
+        long start = System.nanoTime();
+        while (!pending.isEmpty()) {
+            Iterator<Menu> iterator = pending.iterator();
+            Menu menu = iterator.next();
+            iterator.remove();
+            menu.update();
+            if (System.nanoTime() - start >= tickBudget) {
+                break;
+            }
+        }
+    }
+
+    private static class Refresh {
+        private final long interval;
+        private long next;
+
+        private Refresh(long interval, long next) {
+            this.interval = interval;
+            this.next = next;
+        }
+    }
+}
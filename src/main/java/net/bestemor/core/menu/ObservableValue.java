@@ -0,0 +1,51 @@
+package net.bestemor.core.menu;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Value which notifies its listeners when changed. Can be bound to menu slots using
+ * {@link MenuContent#bind(int, ObservableValue, java.util.function.Function)}, re-rendering
+ * only the bound slot when the value changes. May be changed from any thread.
+ * @param <T> Type of value
+ */
+@SuppressWarnings("unused")
+public class ObservableValue<T> {
+
+    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+    private volatile T value;
+
+    public ObservableValue(T value) {
+        this.value = value;
+    }
+
+    public T get() {
+        return value;
+    }
+
+    /** Sets the value and notifies listeners if the value changed
+     * @param value New value */
+    public void set(T value) {
+        if (Objects.equals(this.value, value)) {
+            return;
+        }
+        this.value = value;
+        for (Consumer<T> listener : listeners) {
+            listener.accept(value);
+        }
+    }
+
+    /** Adds a listener called when the value changes
+     * @param listener Listener receiving the new value */
+    public void subscribe(Consumer<T> listener) {
+        listeners.add(listener);
+    }
+
+    /** Removes a previously added listener
+     * @param listener Listener to remove */
+    public void unsubscribe(Consumer<T> listener) {
+        listeners.remove(listener);
+    }
+}
@@ -7,9 +7,9 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 public abstract class PagingMenu extends Menu {
@@ -17,6 +17,7 @@ public abstract class PagingMenu extends Menu {
     private final PagingContent pagingContent;
 
     private final List<Menu> menus = new ArrayList<>();
+    private final Map<UUID, PageView> views = new HashMap<>();
     private final String name;
 
     private ItemStack nextItem;
@@ -25,6 +26,7 @@ public abstract class PagingMenu extends Menu {
     private int previousSlot = -1;
 
     private boolean isCreated = false;
+    private boolean singleInventory = false;
 
     @Deprecated
     @SuppressWarnings("unused")
@@ -98,6 +100,15 @@ public abstract class PagingMenu extends Menu {
         this.previousSlot = slot;
     }
 
+    /** Enables or disables single-inventory paging. When enabled, every viewer gets one
+     * inventory which stays open while paging, and only slots which differ between pages
+     * are rewritten. The %page% placeholder in the title is resolved once, when the
+     * inventory is first opened. Must be set before the menu is opened.
+     * @param singleInventory Whether pages should be switched in place */
+    public void setSingleInventory(boolean singleInventory) {
+        this.singleInventory = singleInventory;
+    }
+
     protected void onClick(InventoryClickEvent event, int page) {}
     protected void onClose(InventoryCloseEvent event, int page) {}
 
@@ -110,16 +121,29 @@ public abstract class PagingMenu extends Menu {
 
     @Override
     public void create() {
-        onCreate(getContent());
-        createPages();
-        isCreated = true;
+        boolean profile = MenuProfiler.begin();
+        try {
+            onCreate(getContent());
+            createPages();
+            isCreated = true;
+        } finally {
+            MenuProfiler.endCreate(this, profile);
+        }
     }
 
     @Override
     public void update() {
-        createPages();
-
-        menus.forEach(Menu::update);
+        boolean profile = MenuProfiler.begin();
+        try {
+            createPages();
+
+            menus.forEach(Menu::update);
+            for (PageView view : views.values()) {
+                view.render(Math.min(view.page, menus.size() - 1));
+            }
+        } finally {
+            MenuProfiler.endUpdate(this, profile);
+        }
     }
 
     @Override
@@ -131,6 +155,10 @@ public abstract class PagingMenu extends Menu {
         if (!isCreated) {
             create();
         }
+        if (singleInventory) {
+            openView(player, page);
+            return;
+        }
         Menu menu = menus.get(page);
         if (listener.hasMenu(player, menu)) {
             return;
@@ -138,23 +166,57 @@ public abstract class PagingMenu extends Menu {
         menu.open(player);
     }
 
+    private void openView(Player player, int page) {
+        PageView view = views.get(player.getUniqueId());
+        if (view != null && listener.hasMenu(player, view)) {
+            view.render(page);
+            return;
+        }
+        view = new PageView(page);
+        views.put(player.getUniqueId(), view);
+        view.open(player);
+    }
+
     public int getPages() {
         return menus.size();
     }
 
+    /** @return Content distributed across the pages */
+    PagingContent getPagingContent() {
+        return pagingContent;
+    }
+
+    /** @return The page currently shown to the player, or -1 if the player is not viewing this menu
+     * @param entity Player to check */
+    public int getPage(HumanEntity entity) {
+        PageView view = views.get(entity.getUniqueId());
+        if (view != null && view.hasPlayer(entity)) {
+            return view.page;
+        }
+        for (int page = 0; page < menus.size(); page++) {
+            if (menus.get(page).hasPlayer(entity)) {
+                return page;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public List<HumanEntity> getViewers() {
-        return menus.stream().flatMap(m -> m.getViewers().stream()).collect(Collectors.toList());
+        return Stream.concat(menus.stream(), views.values().stream())
+                .flatMap(m -> m.getViewers().stream())
+                .collect(Collectors.toList());
     }
 
     @Override
     public void close() {
         menus.forEach(Menu::close);
+        new ArrayList<>(views.values()).forEach(Menu::close);
     }
 
     @Override
     public boolean hasPlayer(HumanEntity entity) {
-        return menus.stream().anyMatch(m -> m.hasPlayer(entity));
+        return menus.stream().anyMatch(m -> m.hasPlayer(entity)) || views.values().stream().anyMatch(m -> m.hasPlayer(entity));
     }
 
     private void createPages() {
@@ -213,6 +275,21 @@ public abstract class PagingMenu extends Menu {
                     PagingMenu.this.onClick(event, finalPage);
                 }
 
+                @Override
+                Menu getOwner() {
+                    return PagingMenu.this;
+                }
+
+                @Override
+                void renderSlot(int slot, Clickable clickable) {
+                    super.renderSlot(slot, clickable);
+                    for (PageView view : views.values()) {
+                        if (view.page == finalPage) {
+                            view.sendSlot(slot);
+                        }
+                    }
+                }
+
                 @Override
                 protected void onClose(InventoryCloseEvent event) {
                     PagingMenu.this.onClose(event, finalPage);
@@ -220,8 +297,101 @@ public abstract class PagingMenu extends Menu {
                 }
             });
         }
+        for (Menu removed : menus.subList(pages, menus.size())) {
+            removed.getContent().detach();
+        }
         List<Menu> cached = new ArrayList<>(menus.subList(0, pages));
         menus.clear();
         menus.addAll(cached);
     }
+
+    /** Inventory used by a single viewer in single-inventory mode. Clicks are delegated
+     * to the page menu currently shown, and switching page only rewrites changed slots. */
+    private class PageView extends Menu {
+
+        private final ItemStack[] sent;
+        private int page;
+
+        private PageView(int page) {
+            super(PagingMenu.super.getInventory().getSize(), name.replace("%page%", String.valueOf(page + 1)));
+            this.sent = new ItemStack[getInventory().getSize()];
+            this.page = page;
+        }
+
+        private void render(int page) {
+            Menu menu = menus.get(page);
+            if (!menu.isCreated()) {
+                menu.create();
+            }
+            if (page != this.page) {
+                int previous = this.page;
+                this.page = page;
+                release(previous);
+            }
+            menu.getContent().attach(menu);
+
+            for (int slot = 0; slot < sent.length; slot++) {
+                sendSlot(slot);
+            }
+        }
+
+        private void sendSlot(int slot) {
+            Clickable clickable = menus.get(page).getClickable(slot);
+            ItemStack item = clickable == null ? null : clickable.getItem();
+            if (!Objects.equals(sent[slot], item)) {
+                getInventory().setItem(slot, item);
+                sent[slot] = item;
+                MenuProfiler.setItems(1);
+            }
+        }
+
+        /** Stops the bindings of a page if no one else is viewing it */
+        private void release(int page) {
+            if (page >= menus.size() || !menus.get(page).getViewers().isEmpty()) {
+                return;
+            }
+            for (PageView view : views.values()) {
+                if (view != this && view.page == page) {
+                    return;
+                }
+            }
+            menus.get(page).getContent().detach();
+        }
+
+        @Override
+        protected void onCreate(MenuContent content) {}
+
+        @Override
+        public void create() {
+            render(page);
+        }
+
+        @Override
+        public void update() {
+            render(page);
+        }
+
+        @Override
+        protected Clickable getClickable(int slot) {
+            return menus.get(page).getClickable(slot);
+        }
+
+        @Override
+        protected void onClick(InventoryClickEvent event) {
+            PagingMenu.this.onClick(event, page);
+        }
+
+        @Override
+        Menu getOwner() {
+            return PagingMenu.this;
+        }
+
+        @Override
+        protected void onClose(InventoryCloseEvent event) {
+            views.remove(event.getPlayer().getUniqueId(), this);
+            release(page);
+            PagingMenu.this.onClose(event, page);
+            PagingMenu.this.onClose(event);
+        }
+    }
 }
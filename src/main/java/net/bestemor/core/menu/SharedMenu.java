@@ -0,0 +1,174 @@
+package net.bestemor.core.menu;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Menu where the static layout is created once and shared between all viewers.
+ * Each viewer only gets a small overlay of personalized {@link Clickable}s,
+ * which is merged on top of the shared layout when rendered.
+ */
+@SuppressWarnings("unused")
+public abstract class SharedMenu extends Menu {
+
+    private final Map<UUID, ViewerMenu> views = new HashMap<>();
+    private final String name;
+
+    protected SharedMenu(int size, String name) {
+        super(size, name);
+        this.name = name;
+    }
+
+    protected SharedMenu(MenuConfig config) {
+        super(config);
+        this.name = config.getTitle();
+    }
+
+    /** Runs when the overlay of a viewer is created or updated. Clickables placed in the
+     * overlay replace the shared clickable in the same slot for this viewer only.
+     * @param overlay Personalized content, cleared before every update
+     * @param player Player viewing the menu */
+    protected abstract void onUpdateOverlay(MenuContent overlay, Player player);
+
+    /** Updates the shared layout, then the overlay of every viewer */
+    @Override
+    public void update() {
+        boolean profile = MenuProfiler.begin();
+        try {
+            super.update();
+            views.values().forEach(Menu::update);
+        } finally {
+            MenuProfiler.endUpdate(this, profile);
+        }
+    }
+
+    /** Updates the overlay of a single viewer
+     * @param player Player to update the overlay for */
+    public void update(Player player) {
+        ViewerMenu view = views.get(player.getUniqueId());
+        if (view != null) {
+            view.update();
+        }
+    }
+
+    @Override
+    public void open(Player player) {
+        if (!isCreated()) {
+            create();
+        }
+        ViewerMenu view = views.get(player.getUniqueId());
+        if (view != null && listener.hasMenu(player, view)) {
+            return;
+        }
+        view = new ViewerMenu(player);
+        views.put(player.getUniqueId(), view);
+        view.open(player);
+        getContent().attach(this);
+    }
+
+    @Override
+    void renderSlot(int slot, Clickable clickable) {
+        super.renderSlot(slot, clickable);
+        for (ViewerMenu view : views.values()) {
+            view.sendSlot(slot);
+        }
+    }
+
+    @Override
+    public List<HumanEntity> getViewers() {
+        return views.values().stream().flatMap(m -> m.getViewers().stream()).collect(Collectors.toList());
+    }
+
+    @Override
+    public void close() {
+        new ArrayList<>(views.values()).forEach(Menu::close);
+    }
+
+    @Override
+    public boolean hasPlayer(HumanEntity entity) {
+        ViewerMenu view = views.get(entity.getUniqueId());
+        return view != null && view.hasPlayer(entity);
+    }
+
+    /** Inventory of a single viewer, rendering the overlay on top of the shared layout */
+    private class ViewerMenu extends Menu {
+
+        private final Player player;
+        private final ItemStack[] sent;
+
+        private ViewerMenu(Player player) {
+            super(SharedMenu.super.getInventory().getSize(), name);
+            this.player = player;
+            this.sent = new ItemStack[getInventory().getSize()];
+        }
+
+        @Override
+        protected void onCreate(MenuContent content) {}
+
+        @Override
+        public void update() {
+            boolean profile = MenuProfiler.begin();
+            try {
+                Map<Integer, Clickable> overlay = getContent().getClickables();
+                overlay.clear();
+                onUpdateOverlay(getContent(), player);
+
+                for (int slot = 0; slot < sent.length; slot++) {
+                    sendSlot(slot);
+                }
+            } finally {
+                MenuProfiler.endUpdate(this, profile);
+            }
+        }
+
+        private void sendSlot(int slot) {
+            Clickable clickable = getClickable(slot);
+            ItemStack item = clickable == null ? null : clickable.getItem();
+            if (!Objects.equals(sent[slot], item)) {
+                getInventory().setItem(slot, item);
+                sent[slot] = item;
+                MenuProfiler.setItems(1);
+            }
+        }
+
+        @Override
+        void renderSlot(int slot, Clickable clickable) {
+            getContent().setClickable(slot, clickable);
+            sendSlot(slot);
+        }
+
+        @Override
+        protected Clickable getClickable(int slot) {
+            Map<Integer, Clickable> overlay = getContent().getClickables();
+            if (overlay.containsKey(slot)) {
+                return overlay.get(slot);
+            }
+            return SharedMenu.this.getClickable(slot);
+        }
+
+        @Override
+        protected void onClick(InventoryClickEvent event) {
+            SharedMenu.this.onClick(event);
+        }
+
+        @Override
+        Menu getOwner() {
+            return SharedMenu.this;
+        }
+
+        @Override
+        protected void onClose(InventoryCloseEvent event) {
+            views.remove(player.getUniqueId(), this);
+            if (views.isEmpty()) {
+                SharedMenu.this.getContent().detach();
+            }
+            SharedMenu.this.onClose(event);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.bestemor.core.menu;
+
+/**
+ * A slot in a {@link MenuContent} which renders itself when its source changes.
+ * Bindings are attached while their menu has viewers, and detached when the last viewer leaves.
+ */
+abstract class SlotBinding {
+
+    protected final int slot;
+    protected Menu menu;
+
+    SlotBinding(int slot) {
+        this.slot = slot;
+    }
+
+    /** @return Clickable rendered from the current state of the source */
+    abstract Clickable render();
+
+    /** Starts listening to the source */
+    abstract void onAttach();
+
+    /** Stops listening to the source */
+    abstract void onDetach();
+
+    void attach(Menu menu) {
+        this.menu = menu;
+        onAttach();
+    }
+
+    void detach() {
+        onDetach();
+        this.menu = null;
+    }
+
+    /** Renders the slot and sends it to the viewers, if attached. Must be called on the main thread */
+    void refresh() {
+        Menu menu = this.menu;
+        if (menu != null) {
+            menu.renderSlot(slot, render());
+        }
+    }
+}
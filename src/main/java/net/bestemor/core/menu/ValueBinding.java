@@ -0,0 +1,56 @@
+package net.bestemor.core.menu;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/** Binding between a slot and an {@link ObservableValue} */
+class ValueBinding<T> extends SlotBinding {
+
+    private static final Plugin plugin = JavaPlugin.getProvidingPlugin(ValueBinding.class);
+
+    private final ObservableValue<T> value;
+    private final Function<T, Clickable> renderer;
+    private final Consumer<T> listener = v -> onChange();
+
+    private T rendered;
+
+    ValueBinding(int slot, ObservableValue<T> value, Function<T, Clickable> renderer) {
+        super(slot);
+        this.value = value;
+        this.renderer = renderer;
+    }
+
+    @Override
+    Clickable render() {
+        rendered = value.get();
+        return renderer.apply(rendered);
+    }
+
+    @Override
+    void onAttach() {
+        value.subscribe(listener);
+        if (!Objects.equals(rendered, value.get())) {
+            refresh();
+        }
+    }
+
+    @Override
+    void onDetach() {
+        value.unsubscribe(listener);
+    }
+
+    private void onChange() {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, this::onChange);
+            return;
+        }
+        if (!Objects.equals(rendered, value.get())) {
+            refresh();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.bestemor.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a {@link LongAdder}, so concurrent increments don't contend.
+ * Increments are ignored while {@link Metrics} is disabled.
+ */
+@SuppressWarnings("unused")
+public final class Counter extends Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help) {
+        super(name, help);
+    }
+
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            value.increment();
+        }
+    }
+
+    /** @param amount Amount to add, must not be negative */
+    public void add(long amount) {
+        if (Metrics.isEnabled()) {
+            value.add(amount);
+        }
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    void reset() {
+        value.reset();
+    }
+
+    @Override
+    void writePrometheus(StringBuilder out) {
+        writeHeader(out, "counter");
+        out.append(getName()).append(' ').append(get()).append('\n');
+    }
+
+    @Override
+    String summary() {
+        return String.valueOf(get());
+    }
+}
@@ -0,0 +1,121 @@
+package net.bestemor.core.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets from 10 microseconds to 1 second. Recording a value
+ * is a bucket search and two {@link LongAdder} increments, and is skipped while {@link Metrics}
+ * is disabled. Exported in seconds, as cumulative Prometheus buckets.
+ */
+@SuppressWarnings("unused")
+public final class Histogram extends Metric {
+
+    private static final long[] BOUNDS = {
+            10_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000, 25_000_000,
+            50_000_000, 100_000_000, 250_000_000, 1_000_000_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder sum = new LongAdder();
+
+    Histogram(String name, String help) {
+        super(name, help);
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /** Records the time passed since a start time from {@link Metrics#start()}
+     * @param start Start time in nanoseconds, or {@link Metrics#DISABLED} if metrics were disabled when started */
+    public void stop(long start) {
+        if (start != Metrics.DISABLED) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /** @param nanos Duration to record in nanoseconds */
+    public void record(long nanos) {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        int i = 0;
+        while (i < BOUNDS.length && nanos > BOUNDS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sum.add(nanos);
+    }
+
+    /** @return Amount of recorded durations */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /** @return Sum of all recorded durations in nanoseconds */
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    /** @return Upper bound in nanoseconds of the bucket containing the given quantile, or -1 if empty.
+     * Values above the largest bucket are reported as {@link Long#MAX_VALUE}
+     * @param quantile Quantile between 0 and 1 */
+    public long getQuantileBound(double quantile) {
+        long count = getCount();
+        if (count == 0) {
+            return -1;
+        }
+        long target = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= target) {
+                return BOUNDS[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+    }
+
+    @Override
+    void writePrometheus(StringBuilder out) {
+        writeHeader(out, "histogram");
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            String bound = i < BOUNDS.length ? seconds(BOUNDS[i]) : "+Inf";
+            out.append(getName()).append("_bucket{le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(getName()).append("_sum ").append(seconds(getSumNanos())).append('\n');
+        out.append(getName()).append("_count ").append(cumulative).append('\n');
+    }
+
+    @Override
+    String summary() {
+        long count = getCount();
+        if (count == 0) {
+            return "0";
+        }
+        long p99 = getQuantileBound(0.99);
+        return String.format(Locale.ROOT, "%d, avg %.3f ms, p99 %s", count,
+                getSumNanos() / (double) count / TimeUnit.MILLISECONDS.toNanos(1),
+                p99 == Long.MAX_VALUE ? "> 1 s" : "<= " + p99 / 1_000_000.0 + " ms");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0).replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+}
@@ -0,0 +1,35 @@
+package net.bestemor.core.metrics;
+
+/** Named metric in the {@link Metrics} registry */
+public abstract class Metric {
+
+    private final String name;
+    private final String help;
+
+    Metric(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    /** @return Name of the metric, following Prometheus naming conventions */
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    abstract void reset();
+
+    /** Appends the metric in the Prometheus text format */
+    abstract void writePrometheus(StringBuilder out);
+
+    /** @return Short human readable value, used by the metrics command */
+    abstract String summary();
+
+    void writeHeader(StringBuilder out, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+}
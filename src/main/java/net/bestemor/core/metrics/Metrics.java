@@ -0,0 +1,123 @@
+package net.bestemor.core.metrics;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of core metrics. Metrics are registered once, usually as static fields, and are cheap
+ * to update: while metrics are disabled, which is the default, updates are a single field check
+ * and timers don't read the clock. Metrics can be exported in the Prometheus text format, either
+ * through {@link MetricsCommand} or periodically to a file in the plugin's data folder.
+ */
+@SuppressWarnings("unused")
+public final class Metrics {
+
+    public static final String EXPORT_FILE = "metrics.prom";
+
+    /** Returned by {@link #start()} while metrics are disabled. Unlike 0, never a realistic {@link System#nanoTime()} reading */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+
+    private Metrics() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /** @return Start time for {@link Histogram#stop(long)}, or {@link #DISABLED} if metrics are disabled */
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /** Registers a counter, or returns the existing counter with the same name
+     * @param name Name of the counter, by convention ending with _total
+     * @param help Description of the counter */
+    public static Counter counter(String name, String help) {
+        return register(name, Counter.class, new Counter(name, help));
+    }
+
+    /** Registers a latency histogram, or returns the existing histogram with the same name
+     * @param name Name of the histogram, by convention ending with _seconds
+     * @param help Description of the histogram */
+    public static Histogram histogram(String name, String help) {
+        return register(name, Histogram.class, new Histogram(name, help));
+    }
+
+    /** @return All registered metrics, sorted by name */
+    public static List<Metric> getMetrics() {
+        List<Metric> result = new ArrayList<>(metrics.values());
+        result.sort(Comparator.comparing(Metric::getName));
+        return result;
+    }
+
+    /** Resets the values of all registered metrics */
+    public static void reset() {
+        metrics.values().forEach(Metric::reset);
+    }
+
+    /** @return All registered metrics in the Prometheus text format */
+    public static String toPrometheus() {
+        StringBuilder builder = new StringBuilder(4096);
+        for (Metric metric : getMetrics()) {
+            metric.writePrometheus(builder);
+        }
+        return builder.toString();
+    }
+
+    /** Writes all metrics in the Prometheus text format to a file, replacing it atomically
+     * @param file File to write to
+     * @throws IOException If the file could not be written */
+    public static void writeTo(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create folder " + parent);
+        }
+        File temp = new File(parent, file.getName() + ".tmp");
+        Files.write(temp.toPath(), toPrometheus().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Periodically writes all metrics to {@value #EXPORT_FILE} in the plugin's data folder, off the main thread
+     * @param plugin Plugin owning the data folder
+     * @param intervalTicks Ticks between each write
+     * @return Task writing the file */
+    public static BukkitTask startExport(Plugin plugin, long intervalTicks) {
+        File file = new File(plugin.getDataFolder(), EXPORT_FILE);
+        return Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            try {
+                writeTo(file);
+            } catch (IOException e) {
+                plugin.getLogger().warning("[BestemorCore] Cannot write metrics: " + e.getMessage());
+            }
+        }, intervalTicks, intervalTicks);
+    }
+
+    private static <T extends Metric> T register(String name, Class<T> type, T metric) {
+        Metric existing = metrics.putIfAbsent(name, metric);
+        if (existing == null) {
+            return metric;
+        }
+        if (!type.isInstance(existing)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + existing.getClass().getSimpleName() + "! Got " + type.getSimpleName());
+        }
+        return type.cast(existing);
+    }
+}
@@ -0,0 +1,80 @@
+package net.bestemor.core.metrics;
+
+import net.bestemor.core.command.ISubCommand;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Subcommand showing core metrics. Can be added to a {@link net.bestemor.core.command.CommandModule}, e.g.
+ * "/plugin metrics" to list all metrics, "/plugin metrics export" to write them to {@value Metrics#EXPORT_FILE} off the main thread
+ * and "/plugin metrics reset" to reset them.
+ */
+@SuppressWarnings("unused")
+public class MetricsCommand implements ISubCommand {
+
+    private final Plugin plugin = JavaPlugin.getProvidingPlugin(MetricsCommand.class);
+
+    @Override
+    public List<String> getCompletion(String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2) {
+            for (String option : new String[]{"export", "reset"}) {
+                if (option.startsWith(args[1].toLowerCase())) {
+                    completions.add(option);
+                }
+            }
+        }
+        return completions;
+    }
+
+    @Override
+    public void run(CommandSender sender, String[] args) {
+        if (!Metrics.isEnabled()) {
+            sender.sendMessage("§cMetrics are disabled");
+            return;
+        }
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            Metrics.reset();
+            sender.sendMessage("§bMetrics have been reset");
+            return;
+        }
+        if (args.length >= 2 && args[1].equalsIgnoreCase("export")) {
+            File file = new File(plugin.getDataFolder(), Metrics.EXPORT_FILE);
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                String message;
+                try {
+                    Metrics.writeTo(file);
+                    message = "§bMetrics written to " + file.getPath();
+                } catch (IOException e) {
+                    message = "§cCould not write metrics: " + e.getMessage();
+                }
+                String result = message;
+                if (plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(result));
+                }
+            });
+            return;
+        }
+        sender.sendMessage("§l§m------§r §b§lMetrics §r§l§m------");
+        for (Metric metric : Metrics.getMetrics()) {
+            sender.sendMessage("§b" + metric.getName() + "§7: " + metric.summary());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Show core metrics";
+    }
+
+    @Override
+    public String getUsage() {
+        return "[export|reset]";
+    }
+}
@@ -0,0 +1,219 @@
+package net.bestemor.core.metrics;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Reports callbacks dispatched by the core which block the main thread for longer than a budget,
+ * such as click handlers, menu updates, subcommands and chat prompt continuations. While a callback
+ * is over budget, a sampler thread captures the main thread's stack, so the report shows where the
+ * time was spent. Also reports blocking file I/O on the main thread once the server has started.
+ * Reports are rate limited per callback. Disabled by default, in which case timing a callback
+ * is a single field check.
+ */
+@SuppressWarnings("unused")
+public final class Watchdog {
+
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+    private static final int MAX_FRAMES = 15;
+
+    private static final Map<String, Report> reports = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = false;
+    private static volatile boolean checkIO = false;
+    private static volatile long budget = TimeUnit.MILLISECONDS.toNanos(20);
+    private static volatile Watch current;
+
+    private static Plugin plugin;
+    private static Thread sampler;
+
+    private Watchdog() {}
+
+    /** Starts the watchdog
+     * @param plugin Plugin used for logging
+     * @param time Time a callback may block the main thread before it is reported
+     * @param unit Unit of the time */
+    public static synchronized void start(Plugin plugin, long time, TimeUnit unit) {
+        Watchdog.plugin = plugin;
+        Watchdog.budget = unit.toNanos(time);
+        Watchdog.enabled = true;
+        if (sampler == null) {
+            sampler = new Thread(Watchdog::sample, "BestemorCore-Watchdog");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    /** Stops the watchdog and its sampler thread */
+    public static synchronized void stop() {
+        enabled = false;
+        checkIO = false;
+        current = null;
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler = null;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Starts reporting file I/O on the main thread. Called once the server has started,
+     * as I/O while enabling plugins is expected */
+    public static void enableIOChecks() {
+        checkIO = enabled;
+    }
+
+    /** Starts timing a callback on the main thread. Must be followed by {@link #end(Watch)}, preferably in a finally block
+     * @param source Class owning the callback, used to find the owning plugin
+     * @param action Short description of the callback, such as "click" or "command shop.open".
+     * Reports are rate limited per source and action, so it should not contain varying input
+     * @return Watch to end, or null if the watchdog is disabled or called off the main thread */
+    public static Watch begin(Class<?> source, String action) {
+        return begin(source, action, null);
+    }
+
+    /** Starts timing a callback on the main thread. Must be followed by {@link #end(Watch)}, preferably in a finally block
+     * @param source Class owning the callback, used to find the owning plugin
+     * @param action Short description of the callback, used to rate limit reports
+     * @param details Varying details shown in the report only, such as command arguments. May be null
+     * @return Watch to end, or null if the watchdog is disabled or called off the main thread */
+    public static Watch begin(Class<?> source, String action, String details) {
+        if (!enabled || !Bukkit.isPrimaryThread()) {
+            return null;
+        }
+        Watch watch = new Watch(source, action, details, Thread.currentThread(), current);
+        current = watch;
+        return watch;
+    }
+
+    /** Ends timing a callback, reporting it if it exceeded the budget
+     * @param watch Watch returned by {@link #begin(Class, String)}, may be null */
+    public static void end(Watch watch) {
+        if (watch == null) {
+            return;
+        }
+        current = watch.parent;
+        long elapsed = System.nanoTime() - watch.start;
+        if (elapsed > budget && enabled) {
+            String took = String.format(Locale.ROOT, "took %.1f ms (budget %.1f ms)", elapsed / 1e6, budget / 1e6);
+            report(watch.source, watch.action, watch.details == null ? took : took + ", " + watch.details, watch.stack);
+        }
+    }
+
+    /** Reports blocking file I/O if called on the main thread after the server has started
+     * @param operation Description of the I/O, such as the file written */
+    public static void checkBlockingIO(String operation) {
+        if (!checkIO || !Bukkit.isPrimaryThread()) {
+            return;
+        }
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        Class<?> source = Watchdog.class;
+        for (StackTraceElement element : stack) {
+            if (!element.getClassName().startsWith("net.bestemor.core.")) {
+                try {
+                    source = Class.forName(element.getClassName(), false, Watchdog.class.getClassLoader());
+                } catch (ClassNotFoundException | LinkageError ignored) {
+                    // Owner can't be resolved, reported without owning plugin
+                }
+                break;
+            }
+        }
+        report(source, "file I/O on main thread", operation, stack);
+    }
+
+    private static void report(Class<?> source, String action, String details, StackTraceElement[] stack) {
+        String key = source.getName() + " " + action;
+        long now = System.nanoTime();
+        Report report = reports.computeIfAbsent(key, k -> new Report());
+        int suppressed;
+        synchronized (report) {
+            if (report.last != 0 && now - report.last < REPORT_INTERVAL) {
+                report.suppressed++;
+                return;
+            }
+            report.last = now;
+            suppressed = report.suppressed;
+            report.suppressed = 0;
+        }
+
+        StringBuilder builder = new StringBuilder("[BestemorCore] Slow main thread: ")
+                .append(source.getSimpleName()).append(' ').append(action).append(' ').append(details)
+                .append(", plugin ").append(getPluginName(source));
+        if (suppressed > 0) {
+            builder.append(" (").append(suppressed).append(" similar reports suppressed)");
+        }
+        if (stack == null) {
+            builder.append("\n\tNo stack sampled");
+        } else {
+            for (int i = 0; i < stack.length && i < MAX_FRAMES; i++) {
+                builder.append("\n\tat ").append(stack[i]);
+            }
+        }
+        Plugin plugin = Watchdog.plugin;
+        if (plugin != null) {
+            plugin.getLogger().log(Level.WARNING, builder.toString());
+        }
+    }
+
+    private static String getPluginName(Class<?> source) {
+        try {
+            return JavaPlugin.getProvidingPlugin(source).getName();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "unknown";
+        }
+    }
+
+    private static void sample() {
+        while (enabled && !Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(budget) / 2));
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            StackTraceElement[] stack = null;
+            for (Watch watch = current; watch != null; watch = watch.parent) {
+                if (watch.stack == null && now - watch.start > budget) {
+                    if (stack == null) {
+                        stack = watch.thread.getStackTrace();
+                    }
+                    watch.stack = stack;
+                }
+            }
+        }
+    }
+
+    /** A callback being timed on the main thread */
+    public static final class Watch {
+
+        private final Class<?> source;
+        private final String action;
+        private final String details;
+        private final Thread thread;
+        private final Watch parent;
+        private final long start = System.nanoTime();
+        private volatile StackTraceElement[] stack;
+
+        private Watch(Class<?> source, String action, String details, Thread thread, Watch parent) {
+            this.source = source;
+            this.action = action;
+            this.details = details;
+            this.thread = thread;
+            this.parent = parent;
+        }
+    }
+
+    private static class Report {
+        private long last;
+        private int suppressed;
+    }
+}
@@ -0,0 +1,15 @@
+package net.bestemor.core.utils;
+
+/**
+ * Parses user input, such as chat or command arguments, into a typed value.
+ * Implementations scan the input without throwing exceptions, and report invalid
+ * input through {@link ParseResult#getError()}. See {@link InputParsers} for built-in parsers.
+ * @param <T> Type of the parsed value
+ */
+@FunctionalInterface
+public interface InputParser<T> {
+
+    /** @return Result holding the parsed value or the reason the input was rejected
+     * @param input Input to parse, never null */
+    ParseResult<T> parse(String input);
+}
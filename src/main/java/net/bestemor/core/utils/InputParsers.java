@@ -0,0 +1,337 @@
+package net.bestemor.core.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormatSymbols;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Built-in {@link InputParser} implementations. All parsers ignore leading and trailing whitespace,
+ * scan the input once and never throw on invalid input.
+ */
+@SuppressWarnings("unused")
+public final class InputParsers {
+
+    private static final InputParser<Integer> INTEGER = integer(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    private static final InputParser<BigDecimal> DECIMAL = new DecimalParser('.', (char) 0, false, false, true);
+    private static final InputParser<Duration> DURATION = InputParsers::parseDuration;
+    private static final InputParser<String> PLAYER_NAME = InputParsers::parsePlayerName;
+
+    private static final int[] SUFFIX_POWERS = {3, 6, 9, 12};
+    private static final String SUFFIXES = "kmbt";
+    private static final int MAX_EXPONENT = 9999;
+
+    private InputParsers() {}
+
+    /** @return Parser for whole numbers within the range of an int */
+    public static InputParser<Integer> integer() {
+        return INTEGER;
+    }
+
+    /** @return Parser for whole numbers within the given range, rejecting others with {@link ParseResult.ErrorCode#OUT_OF_RANGE}
+     * @param min Smallest accepted value
+     * @param max Largest accepted value */
+    public static InputParser<Integer> integer(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Min must not be larger than max! Got " + min + " > " + max);
+        }
+        return input -> parseInteger(input, min, max);
+    }
+
+    /** @return Parser for non-negative decimals using a dot as decimal separator, e.g. "12.50",
+     * optionally in scientific notation such as "1e3". Commas are rejected with {@link ParseResult.ErrorCode#USE_DOT} */
+    public static InputParser<BigDecimal> decimal() {
+        return DECIMAL;
+    }
+
+    /** @return Parser for non-negative currency amounts using the separators of a locale.
+     * Amounts may use grouping, e.g. "1,250.50", and the suffixes k, m, b and t, e.g. "1.5k"
+     * @param locale Locale to use separators from */
+    public static InputParser<BigDecimal> currency(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return currency(symbols.getGroupingSeparator(), symbols.getDecimalSeparator());
+    }
+
+    /** @return Parser for non-negative currency amounts with grouping and the suffixes k, m, b and t.
+     * Grouping separators are only accepted between groups of three digits in the whole part, e.g. "1,250,000"
+     * @param grouping Separator between groups of thousands
+     * @param decimal Separator between whole and fractional part */
+    public static InputParser<BigDecimal> currency(char grouping, char decimal) {
+        if (grouping == decimal) {
+            throw new IllegalArgumentException("Grouping and decimal separator must differ! Got " + grouping);
+        }
+        return new DecimalParser(decimal, grouping, true, false, false);
+    }
+
+    /** @return Parser for durations made of numbers followed by a unit, e.g. "1d2h" or "1h 30m".
+     * Supported units are w, d, h, m and s */
+    public static InputParser<Duration> duration() {
+        return DURATION;
+    }
+
+    /** @return Parser for player names, consisting of 3 to 16 letters, digits or underscores */
+    public static InputParser<String> playerName() {
+        return PLAYER_NAME;
+    }
+
+    private static ParseResult<Integer> parseInteger(String input, int min, int max) {
+        int start = start(input);
+        int end = end(input);
+        if (start >= end) {
+            return ParseResult.error(ParseResult.ErrorCode.EMPTY);
+        }
+        boolean negative = false;
+        char first = input.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+        if (start >= end) {
+            return ParseResult.error(ParseResult.ErrorCode.NOT_NUMBER);
+        }
+
+        long value = 0;
+        boolean overflow = false;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return ParseResult.error(ParseResult.ErrorCode.NOT_NUMBER);
+            }
+            if (!overflow) {
+                value = value * 10 + (c - '0');
+                overflow = value > Integer.MAX_VALUE + 1L;
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (overflow || value < min || value > max) {
+            return ParseResult.error(ParseResult.ErrorCode.OUT_OF_RANGE);
+        }
+        return ParseResult.success((int) value);
+    }
+
+    private static ParseResult<Duration> parseDuration(String input) {
+        int start = start(input);
+        int end = end(input);
+        if (start >= end) {
+            return ParseResult.error(ParseResult.ErrorCode.EMPTY);
+        }
+
+        long seconds = 0;
+        int i = start;
+        while (i < end) {
+            int digitsStart = i;
+            long amount = 0;
+            while (i < end && input.charAt(i) >= '0' && input.charAt(i) <= '9') {
+                if (amount > Integer.MAX_VALUE) {
+                    return ParseResult.error(ParseResult.ErrorCode.OUT_OF_RANGE);
+                }
+                amount = amount * 10 + (input.charAt(i) - '0');
+                i++;
+            }
+            while (i < end && input.charAt(i) == ' ') {
+                i++;
+            }
+            if (i == digitsStart || i >= end) {
+                return ParseResult.error(ParseResult.ErrorCode.INVALID_DURATION);
+            }
+
+            long unit;
+            switch (Character.toLowerCase(input.charAt(i))) {
+                case 'w': unit = 604800; break;
+                case 'd': unit = 86400; break;
+                case 'h': unit = 3600; break;
+                case 'm': unit = 60; break;
+                case 's': unit = 1; break;
+                default: return ParseResult.error(ParseResult.ErrorCode.INVALID_DURATION);
+            }
+            seconds += amount * unit;
+            if (seconds > Integer.MAX_VALUE * 604800L) {
+                return ParseResult.error(ParseResult.ErrorCode.OUT_OF_RANGE);
+            }
+            i++;
+            while (i < end && input.charAt(i) == ' ') {
+                i++;
+            }
+        }
+        return ParseResult.success(Duration.ofSeconds(seconds));
+    }
+
+    private static ParseResult<String> parsePlayerName(String input) {
+        int start = start(input);
+        int end = end(input);
+        if (start >= end) {
+            return ParseResult.error(ParseResult.ErrorCode.EMPTY);
+        }
+        if (end - start < 3 || end - start > 16) {
+            return ParseResult.error(ParseResult.ErrorCode.INVALID_NAME);
+        }
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) {
+                return ParseResult.error(ParseResult.ErrorCode.INVALID_NAME);
+            }
+        }
+        return ParseResult.success(input.substring(start, end));
+    }
+
+    private static int start(String input) {
+        int start = 0;
+        while (start < input.length() && Character.isWhitespace(input.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String input) {
+        int end = input.length();
+        while (end > 0 && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /** Parses decimals into a BigDecimal, collecting digits in a single pass */
+    private static class DecimalParser implements InputParser<BigDecimal> {
+
+        private final char decimal;
+        private final char grouping;
+        private final boolean suffixes;
+        private final boolean allowNegative;
+        private final boolean exponent;
+
+        private DecimalParser(char decimal, char grouping, boolean suffixes, boolean allowNegative, boolean exponent) {
+            this.decimal = decimal;
+            this.grouping = grouping;
+            this.suffixes = suffixes;
+            this.allowNegative = allowNegative;
+            this.exponent = exponent;
+        }
+
+        @Override
+        public ParseResult<BigDecimal> parse(String input) {
+            int start = start(input);
+            int end = end(input);
+            if (start >= end) {
+                return ParseResult.error(ParseResult.ErrorCode.EMPTY);
+            }
+
+            boolean negative = false;
+            char first = input.charAt(start);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                start++;
+            }
+
+            int power = 0;
+            if (suffixes && end > start) {
+                int suffix = SUFFIXES.indexOf(Character.toLowerCase(input.charAt(end - 1)));
+                if (suffix >= 0) {
+                    power = SUFFIX_POWERS[suffix];
+                    end--;
+                    while (end > start && input.charAt(end - 1) == ' ') {
+                        end--;
+                    }
+                }
+            }
+
+            if (exponent) {
+                int e = Math.max(input.lastIndexOf('e', end - 1), input.lastIndexOf('E', end - 1));
+                if (e >= start) {
+                    int exp = parseExponent(input, e + 1, end);
+                    if (exp == Integer.MIN_VALUE) {
+                        return notNumber(input);
+                    }
+                    if (Math.abs(exp) > MAX_EXPONENT) {
+                        return ParseResult.error(ParseResult.ErrorCode.OUT_OF_RANGE);
+                    }
+                    power = exp;
+                    end = e;
+                }
+            }
+
+            char[] digits = new char[end - start];
+            int count = 0;
+            int scale = 0;
+            int groupDigits = 0;
+            boolean grouped = false;
+            boolean fraction = false;
+            boolean nonZero = false;
+            for (int i = start; i < end; i++) {
+                char c = input.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits[count++] = c;
+                    nonZero |= c != '0';
+                    if (fraction) {
+                        scale++;
+                    } else {
+                        groupDigits++;
+                    }
+                } else if (c == decimal && !fraction) {
+                    if (grouped && groupDigits != 3) {
+                        return notNumber(input);
+                    }
+                    fraction = true;
+                } else if (isGrouping(c) && !fraction && groupDigits > 0 && (grouped ? groupDigits == 3 : groupDigits <= 3)) {
+                    grouped = true;
+                    groupDigits = 0;
+                } else {
+                    return notNumber(input);
+                }
+            }
+            if (count == 0 || !fraction && grouped && groupDigits != 3) {
+                return notNumber(input);
+            }
+            if (negative && nonZero && !allowNegative) {
+                return ParseResult.error(ParseResult.ErrorCode.NEGATIVE);
+            }
+
+            BigDecimal value;
+            if (count <= 18) {
+                long unscaled = 0;
+                for (int i = 0; i < count; i++) {
+                    unscaled = unscaled * 10 + (digits[i] - '0');
+                }
+                value = BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+            } else {
+                BigInteger unscaled = new BigInteger(new String(digits, 0, count));
+                value = new BigDecimal(negative ? unscaled.negate() : unscaled, scale);
+            }
+            return ParseResult.success(power == 0 ? value : value.movePointRight(power));
+        }
+
+        private boolean isGrouping(char c) {
+            return grouping != 0 && (c == grouping || Character.isSpaceChar(grouping) && c == ' ');
+        }
+
+        /** @return Exponent with optional sign, or Integer.MIN_VALUE if there are no digits or other characters */
+        private static int parseExponent(String input, int start, int end) {
+            boolean negative = false;
+            if (start < end && (input.charAt(start) == '-' || input.charAt(start) == '+')) {
+                negative = input.charAt(start) == '-';
+                start++;
+            }
+            if (start >= end) {
+                return Integer.MIN_VALUE;
+            }
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                char c = input.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Integer.MIN_VALUE;
+                }
+                value = Math.min(value * 10 + (c - '0'), MAX_EXPONENT + 1);
+            }
+            return negative ? -value : value;
+        }
+
+        private ParseResult<BigDecimal> notNumber(String input) {
+            if (decimal != ',' && grouping != ',' && input.indexOf(',') >= 0) {
+                return ParseResult.error(ParseResult.ErrorCode.USE_DOT);
+            }
+            return ParseResult.error(ParseResult.ErrorCode.NOT_NUMBER);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.bestemor.core.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Result of parsing user input with an {@link InputParser}.
+ * Holds either the parsed value or an {@link ErrorCode} describing why the input was rejected.
+ * @param <T> Type of the parsed value
+ */
+@SuppressWarnings("unused")
+public final class ParseResult<T> {
+
+    private static final Map<ErrorCode, ParseResult<?>> ERRORS = new EnumMap<>(ErrorCode.class);
+
+    static {
+        for (ErrorCode code : ErrorCode.values()) {
+            ERRORS.put(code, new ParseResult<>(null, code));
+        }
+    }
+
+    private final T value;
+    private final ErrorCode error;
+
+    private ParseResult(T value, ErrorCode error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> ParseResult<T> success(T value) {
+        return new ParseResult<>(value, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ParseResult<T> error(ErrorCode error) {
+        return (ParseResult<T>) ERRORS.get(error);
+    }
+
+    /** @return Whether the input was parsed successfully */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /** @return Parsed value, or null if parsing failed */
+    public T getValue() {
+        return value;
+    }
+
+    /** @return Reason the input was rejected, or null if parsing succeeded */
+    public ErrorCode getError() {
+        return error;
+    }
+
+    public enum ErrorCode {
+        /** Input was empty or only whitespace */
+        EMPTY("messages.not_number", "&cPlease enter a number"),
+        /** Input was not a number */
+        NOT_NUMBER("messages.not_number", "&cPlease enter a number"),
+        /** Input used a comma where a dot was expected */
+        USE_DOT("messages.use_dot", "&cPlease use a dot as decimal separator"),
+        /** Input was a negative number where only positive numbers are allowed */
+        NEGATIVE("messages.negative_price", "&cThe amount can not be negative"),
+        /** Input was a number outside the allowed range */
+        OUT_OF_RANGE("messages.out_of_range", "&cThe number is out of range"),
+        /** Input was not a duration such as 1d2h */
+        INVALID_DURATION("messages.invalid_duration", "&cPlease enter a duration such as 1d2h30m"),
+        /** Input was not a valid player name */
+        INVALID_NAME("messages.invalid_player_name", "&cPlease enter a valid player name");
+
+        private final String messagePath;
+        private final String defaultMessage;
+
+        ErrorCode(String messagePath, String defaultMessage) {
+            this.messagePath = messagePath;
+            this.defaultMessage = defaultMessage;
+        }
+
+        /** @return Config path of the message shown to players for this error */
+        public String getMessagePath() {
+            return messagePath;
+        }
+
+        /** @return Message shown if the config path is not set */
+        public String getDefaultMessage() {
+            return defaultMessage;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.bestemor.core.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches permission checks per player and permission node, for checks repeated often such as
+ * commands and menu buttons. Decisions expire after a short time, and are discarded when the
+ * player changes world or leaves. Plugins changing permissions, for example from a permission
+ * plugin's events, should call {@link #invalidate(UUID)} so changes apply immediately.
+ */
+@SuppressWarnings("unused")
+public class PermissionCache implements Listener {
+
+    private final Map<UUID, Map<String, Long>> decisions = new ConcurrentHashMap<>();
+    private volatile long ttl = TimeUnit.SECONDS.toMillis(5);
+
+    /** @return Whether the player has the permission, using a cached decision if it has not expired
+     * @param player Player to check
+     * @param node Permission node */
+    public boolean has(Player player, String node) {
+        if (ttl <= 0) {
+            return player.hasPermission(node);
+        }
+        Map<String, Long> playerDecisions = decisions.get(player.getUniqueId());
+        long now = System.currentTimeMillis();
+        if (playerDecisions != null) {
+            // Decisions are stored as the time they were made, shifted left, with the result in the lowest bit
+            Long decision = playerDecisions.get(node);
+            if (decision != null && now - (decision >> 1) < ttl) {
+                return (decision & 1) == 1;
+            }
+        }
+
+        boolean allowed = player.hasPermission(node);
+        if (player.isOnline()) {
+            if (playerDecisions == null) {
+                playerDecisions = decisions.computeIfAbsent(player.getUniqueId(), uuid -> new ConcurrentHashMap<>());
+            }
+            playerDecisions.put(StringPool.intern(node), now << 1 | (allowed ? 1 : 0));
+        }
+        return allowed;
+    }
+
+    /** Discards all cached decisions of a player
+     * @param player UUID of the player */
+    public void invalidate(UUID player) {
+        decisions.remove(player);
+    }
+
+    /** Discards all cached decisions */
+    public void invalidateAll() {
+        decisions.clear();
+    }
+
+    /** Sets how long decisions are cached for
+     * @param time Time to cache decisions, or 0 to disable caching
+     * @param unit Unit of the time */
+    public void setTtl(long time, TimeUnit unit) {
+        this.ttl = unit.toMillis(time);
+        if (ttl <= 0) {
+            invalidateAll();
+        }
+    }
+
+    @EventHandler (priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler (priority = EventPriority.MONITOR)
+    public void onChangeWorld(PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+}
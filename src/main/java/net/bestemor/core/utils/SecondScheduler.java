@@ -0,0 +1,35 @@
+package net.bestemor.core.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Runs tasks on the main thread after a number of whole seconds, for timeouts which
+ * don't need tick precision. The core's shared implementation is available from
+ * {@link net.bestemor.core.CorePlugin#getSecondScheduler()}.
+ */
+public interface SecondScheduler {
+
+    /** Schedules a task to run on the main thread after a number of seconds
+     * @param task Task to run
+     * @param seconds Seconds until the task runs, at least 1
+     * @return Handle which can be used to cancel the task */
+    Task runLater(Runnable task, long seconds);
+
+    /** @return Scheduler running each task as a separate Bukkit task
+     * @param plugin Plugin owning the tasks */
+    static SecondScheduler bukkit(Plugin plugin) {
+        return (task, seconds) -> {
+            BukkitTask scheduled = Bukkit.getScheduler().runTaskLater(plugin, task, Math.max(1, seconds) * 20);
+            return scheduled::cancel;
+        };
+    }
+
+    /** Handle of a scheduled task */
+    @FunctionalInterface
+    interface Task {
+        /** Cancels the task, preventing it from running */
+        void cancel();
+    }
+}
@@ -0,0 +1,133 @@
+package net.bestemor.core.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weak pool deduplicating strings which are kept for a long time, such as rendered lore lists and
+ * permission nodes. Identical strings passed through the pool share a single instance, while strings
+ * no longer referenced elsewhere can still be garbage collected. Strings passed to ItemMeta are not
+ * pooled, as most server versions re-encode them. Thread safe without a global lock.
+ */
+public final class StringPool {
+
+    private static final Map<Object, Entry> pool = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<String> queue = new ReferenceQueue<>();
+
+    /** Estimated size of a String and its array, excluding the characters, on a 64-bit JVM with compressed references */
+    private static final int STRING_OVERHEAD = 40;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong savedBytes = new AtomicLong();
+
+    private StringPool() {}
+
+    /** Returns a pooled instance equal to the given string
+     * @param s String to deduplicate
+     * @return Pooled instance, or the given string if it was not pooled already */
+    public static String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        expunge();
+        Entry entry = pool.get(new Lookup(s));
+        String pooled = entry == null ? null : entry.get();
+        if (pooled == null) {
+            Entry created = new Entry(s, queue);
+            entry = pool.putIfAbsent(created, created);
+            pooled = entry == null ? null : entry.get();
+            if (pooled == null) {
+                pool.put(created, created);
+                return s;
+            }
+        }
+        if (pooled != s) {
+            hits.incrementAndGet();
+            savedBytes.addAndGet(STRING_OVERHEAD + 2L * s.length());
+        }
+        return pooled;
+    }
+
+    /** @return Amount of strings currently pooled */
+    @SuppressWarnings("unused")
+    public static int size() {
+        expunge();
+        return pool.size();
+    }
+
+    /** @return Amount of duplicate strings replaced by a pooled instance */
+    @SuppressWarnings("unused")
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /** @return Estimated bytes saved by replacing duplicates with pooled instances, assuming two bytes
+     * per character. Only an upper bound, as a replaced duplicate may still be referenced elsewhere */
+    @SuppressWarnings("unused")
+    public static long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /** Removes entries of strings which have been garbage collected */
+    private static void expunge() {
+        Reference<? extends String> reference;
+        while ((reference = queue.poll()) != null) {
+            pool.remove(reference);
+        }
+    }
+
+    /** Weakly referenced pooled string, equal to other entries and lookups of an equal string */
+    private static final class Entry extends WeakReference<String> {
+
+        private final int hash;
+
+        private Entry(String s, ReferenceQueue<String> queue) {
+            super(s, queue);
+            this.hash = s.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            String s = get();
+            if (s == null) {
+                return false;
+            }
+            if (o instanceof Entry) {
+                return s.equals(((Entry) o).get());
+            }
+            return o instanceof Lookup && s.equals(((Lookup) o).s);
+        }
+    }
+
+    /** Key used to look up an entry without creating a weak reference */
+    private static final class Lookup {
+
+        private final String s;
+
+        private Lookup(String s) {
+            this.s = s;
+        }
+
+        @Override
+        public int hashCode() {
+            return s.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry && s.equals(((Entry) o).get());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.bestemor.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel scheduling values a number of ticks ahead. Scheduling and cancelling
+ * are constant time, and advancing only visits the entries hashed to the current bucket.
+ * The caller decides what a tick is by calling {@link #advance()}. Thread safe.
+ * @param <T> Type of scheduled values
+ */
+public class TimingWheel<T> {
+
+    private final List<List<Timeout<T>>> buckets;
+    private long tick = 0;
+    private int size = 0;
+
+    /** @param buckets Amount of buckets. Should be at least the most common delay */
+    public TimingWheel(int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Timing wheel must have at least 1 bucket! Got " + buckets);
+        }
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+    }
+
+    /** Schedules a value to expire after the given amount of ticks
+     * @param value Value to schedule
+     * @param delay Ticks until the value expires. Values less than 1 expire on the next tick
+     * @return Timeout which can be used to cancel the value */
+    public synchronized Timeout<T> schedule(T value, long delay) {
+        Timeout<T> timeout = new Timeout<>(value, tick + Math.max(1, delay));
+        buckets.get((int) (timeout.deadline % buckets.size())).add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** Advances the wheel by one tick
+     * @return Values expiring on this tick, excluding cancelled values */
+    public synchronized List<T> advance() {
+        tick++;
+        List<Timeout<T>> bucket = buckets.get((int) (tick % buckets.size()));
+        List<T> expired = new ArrayList<>();
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Timeout<T> timeout = bucket.get(i);
+            if (timeout.cancelled || timeout.deadline <= tick) {
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                size--;
+                if (!timeout.cancelled) {
+                    expired.add(timeout.value);
+                }
+            }
+        }
+        return expired;
+    }
+
+    /** @return Current tick of the wheel */
+    public synchronized long getTick() {
+        return tick;
+    }
+
+    /** @return Amount of scheduled values, including cancelled values not yet visited */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Handle of a scheduled value */
+    public static class Timeout<T> {
+
+        private final T value;
+        private final long deadline;
+        private volatile boolean cancelled = false;
+
+        private Timeout(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        /** Cancels the value, preventing it from expiring */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
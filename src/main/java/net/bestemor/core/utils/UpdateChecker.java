@@ -1,35 +1,201 @@
 package net.bestemor.core.utils;
 
-import org.bukkit.Bukkit;
+import net.bestemor.core.CorePlugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Scanner;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 
+/**
+ * Looks up the latest version of a plugin. Requests have strict connect and read timeouts and never
+ * run on the main thread. The last result is cached in the plugin's data folder, so the endpoint is
+ * queried at most once per re-check interval across restarts. After a failed request, further checks
+ * use the cached version without querying the endpoint for an exponentially growing time.
+ */
 public class UpdateChecker {
 
+    private static final String CACHE_FILE = "update-check.properties";
+    private static final long BASE_BACKOFF = TimeUnit.MINUTES.toMillis(5);
+    private static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(24);
+
     private final JavaPlugin plugin;
     private final int resourceId;
 
+    private String endpoint;
+    private int connectTimeout = 3000;
+    private int readTimeout = 5000;
+    private long minInterval = TimeUnit.HOURS.toMillis(12);
+
     public UpdateChecker(JavaPlugin plugin, int resourceId) {
         this.plugin = plugin;
         this.resourceId = resourceId;
+        this.endpoint = "https://api.spigotmc.org/legacy/update.php?resource=" + resourceId;
+    }
+
+    /** Sets the URL queried for the latest version, which should respond with the version as plain text
+     * @param endpoint URL to query
+     * @return This checker */
+    @SuppressWarnings("unused")
+    public UpdateChecker endpoint(String endpoint) {
+        this.endpoint = endpoint;
+        return this;
+    }
+
+    /** @param connect Maximum time to wait for a connection
+     * @param read Maximum time to wait for the response
+     * @param unit Unit of the times
+     * @return This checker */
+    @SuppressWarnings("unused")
+    public UpdateChecker timeouts(long connect, long read, TimeUnit unit) {
+        this.connectTimeout = (int) Math.min(Integer.MAX_VALUE, unit.toMillis(connect));
+        this.readTimeout = (int) Math.min(Integer.MAX_VALUE, unit.toMillis(read));
+        return this;
+    }
+
+    /** @param time Minimum time between each query, during which the cached version is used
+     * @param unit Unit of the time
+     * @return This checker */
+    @SuppressWarnings("unused")
+    public UpdateChecker minInterval(long time, TimeUnit unit) {
+        this.minInterval = unit.toMillis(time);
+        return this;
     }
 
+    /** Looks up the latest version, using the cached version if it was checked recently
+     * @param consumer Consumer accepting the version, not called if no version is known.
+     * Failures of the lookup or the consumer are logged */
     public void getVersion(final Consumer<String> consumer) {
-        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
-            try (InputStream inputStream = new URL("https://api.spigotmc.org/legacy/update.php?resource=" + this.resourceId).openStream();
-                 Scanner scanner = new Scanner(inputStream)) {
-                if (scanner.hasNext()) {
-                    consumer.accept(scanner.next());
-                }
-            } catch (IOException exception) {
-                this.plugin.getLogger().severe("[BestemorCore] Cannot look for updates: ");
-                exception.printStackTrace();
+        check().thenAccept(version -> {
+            if (version != null) {
+                consumer.accept(version);
             }
+        }).exceptionally(e -> {
+            plugin.getLogger().log(Level.WARNING, "[BestemorCore] Failed to look for updates", e);
+            return null;
         });
     }
-}
\ No newline at end of file
+
+    /** Looks up the latest version off the main thread
+     * @return Future completed with the latest version. If the endpoint can't be reached, completed with
+     * the last known version, or null if no version is known */
+    public CompletableFuture<String> check() {
+        return CompletableFuture.supplyAsync(this::lookup, getExecutor());
+    }
+
+    private String lookup() {
+        File file = new File(plugin.getDataFolder(), CACHE_FILE);
+        Properties cache = loadCache(file);
+        String cached = cache.getProperty("version");
+        long now = System.currentTimeMillis();
+
+        boolean sameEndpoint = endpoint.equals(cache.getProperty("endpoint"));
+        if (sameEndpoint && cached != null && now - getLong(cache, "checked") < minInterval) {
+            return cached;
+        }
+        if (sameEndpoint && now < getLong(cache, "next_attempt")) {
+            return cached;
+        }
+
+        cache.setProperty("endpoint", endpoint);
+        try {
+            String version = fetch();
+            cache.setProperty("version", version);
+            cache.setProperty("checked", String.valueOf(now));
+            cache.remove("failures");
+            cache.remove("next_attempt");
+            saveCache(file, cache);
+            return version;
+        } catch (IOException e) {
+            long failures = sameEndpoint ? getLong(cache, "failures") + 1 : 1;
+            long backoff = Math.min(MAX_BACKOFF, BASE_BACKOFF << Math.min(failures - 1, 16));
+            cache.setProperty("failures", String.valueOf(failures));
+            cache.setProperty("next_attempt", String.valueOf(now + backoff));
+            saveCache(file, cache);
+            plugin.getLogger().warning("[BestemorCore] Cannot look for updates, skipping checks for "
+                    + TimeUnit.MILLISECONDS.toMinutes(backoff) + " minutes: " + e.getMessage());
+            return sameEndpoint ? cached : null;
+        }
+    }
+
+    private String fetch() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setRequestProperty("User-Agent", plugin.getName() + "/" + plugin.getDescription().getVersion());
+        try {
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + status + " for resource " + resourceId);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                if (line == null || line.trim().isEmpty()) {
+                    throw new IOException("Empty response for resource " + resourceId);
+                }
+                return line.trim().split("\\s+")[0];
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private Properties loadCache(File file) {
+        Properties cache = new Properties();
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                cache.load(in);
+            } catch (IOException e) {
+                plugin.getLogger().warning("[BestemorCore] Cannot read update cache: " + e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    private void saveCache(File file, Properties cache) {
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            return;
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            cache.store(out, "Update check cache for " + plugin.getName());
+        } catch (IOException e) {
+            plugin.getLogger().warning("[BestemorCore] Cannot write update cache: " + e.getMessage());
+        }
+    }
+
+    private static long getLong(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return 0;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static Executor getExecutor() {
+        ExecutorService workers = CorePlugin.getWorkerPool();
+        if (workers != null && !workers.isShutdown()) {
+            return workers;
+        }
+        return runnable -> {
+            Thread thread = new Thread(runnable, "BestemorCore-UpdateChecker");
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+}
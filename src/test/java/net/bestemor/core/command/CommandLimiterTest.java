@@ -0,0 +1,71 @@
+package net.bestemor.core.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final UUID player = UUID.randomUUID();
+
+    private static CommandNode node(long cooldownSeconds) {
+        CommandNode node = CommandNode.literal("sell").cooldown(cooldownSeconds, TimeUnit.SECONDS);
+        node.assignCooldowns(0);
+        return node;
+    }
+
+    @Test
+    void cooldownReturnsRemainingTime() {
+        CommandNode node = node(5);
+        CommandLimiter limiter = new CommandLimiter(1, 0, SECOND);
+        assertEquals(0, limiter.tryAcquire(player, node, 0));
+        assertEquals(3 * SECOND, limiter.tryAcquire(player, node, 2 * SECOND));
+        assertEquals(0, limiter.tryAcquire(player, node, 5 * SECOND));
+    }
+
+    @Test
+    void cooldownsArePerPlayer() {
+        CommandNode node = node(5);
+        CommandLimiter limiter = new CommandLimiter(1, 0, SECOND);
+        assertEquals(0, limiter.tryAcquire(player, node, 0));
+        assertEquals(0, limiter.tryAcquire(UUID.randomUUID(), node, 0));
+    }
+
+    @Test
+    void rateLimitAllowsBurstThenRefills() {
+        CommandNode node = node(0);
+        CommandLimiter limiter = new CommandLimiter(0, 3, SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(player, node, 0));
+        }
+        assertEquals(CommandLimiter.RATE_LIMITED, limiter.tryAcquire(player, node, SECOND - 1));
+        assertEquals(0, limiter.tryAcquire(player, node, SECOND));
+        assertEquals(CommandLimiter.RATE_LIMITED, limiter.tryAcquire(player, node, SECOND));
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        CommandNode node = node(0);
+        CommandLimiter limiter = new CommandLimiter(0, 2, SECOND);
+        assertEquals(0, limiter.tryAcquire(player, node, 0));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, limiter.tryAcquire(player, node, 100 * SECOND));
+        }
+        assertEquals(CommandLimiter.RATE_LIMITED, limiter.tryAcquire(player, node, 100 * SECOND));
+    }
+
+    @Test
+    void cooldownDoesNotConsumeTokens() {
+        CommandNode node = node(5);
+        CommandLimiter limiter = new CommandLimiter(1, 2, 10 * SECOND);
+        assertEquals(0, limiter.tryAcquire(player, node, 0));
+        assertTrue(limiter.tryAcquire(player, node, SECOND) > 0);
+        assertTrue(limiter.tryAcquire(player, node, 2 * SECOND) > 0);
+        assertEquals(0, limiter.tryAcquire(player, node, 5 * SECOND));
+    }
+}
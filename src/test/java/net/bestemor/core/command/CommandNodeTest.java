@@ -0,0 +1,85 @@
+package net.bestemor.core.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandNodeTest {
+
+    @Test
+    void literalsPreferredOverArgument() {
+        CommandNode list = CommandNode.literal("list");
+        CommandNode player = CommandNode.argument("player", CompletionProvider.none());
+        CommandNode root = CommandNode.literal("shop").then(list).then(player);
+        assertSame(list, root.getChild("list"));
+        assertSame(player, root.getChild("Notch"));
+        assertEquals(Arrays.asList(list, player), root.getChildren());
+    }
+
+    @Test
+    void aliasesMatchSameNode() {
+        CommandNode remove = CommandNode.literal("remove", "rm", "delete");
+        CommandNode root = CommandNode.literal("shop").then(remove);
+        assertSame(remove, root.getChild("rm"));
+        assertSame(remove, root.getChild("delete"));
+        assertEquals(Arrays.asList("delete", "remove", "rm"), root.complete(null, ""));
+    }
+
+    @Test
+    void lookupsAreCaseSensitive() {
+        CommandNode root = CommandNode.literal("shop").then(CommandNode.literal("list"));
+        assertNull(root.getChild("LIST"));
+    }
+
+    @Test
+    void duplicateLiteralReplacesExisting() {
+        CommandNode first = CommandNode.literal("remove", "rm");
+        CommandNode second = CommandNode.literal("remove", "del");
+        CommandNode root = CommandNode.literal("shop").then(first).then(second);
+        assertEquals(Collections.singletonList(second), root.getChildren());
+        assertSame(second, root.getChild("remove"));
+        assertSame(second, root.getChild("del"));
+        assertNull(root.getChild("rm"));
+    }
+
+    @Test
+    void onlyOneArgument() {
+        CommandNode root = CommandNode.literal("shop").then(CommandNode.argument("a", CompletionProvider.none()));
+        assertThrows(IllegalStateException.class, () -> root.then(CommandNode.argument("b", CompletionProvider.none())));
+    }
+
+    @Test
+    void completesLiteralsThenArguments() {
+        CommandNode root = CommandNode.literal("shop")
+                .then(CommandNode.literal("sell"))
+                .then(CommandNode.argument("player", (sender, prefix) -> Collections.singletonList("Steve")));
+        List<String> completions = root.complete(null, "s");
+        assertEquals(Arrays.asList("sell", "Steve"), completions);
+        assertFalse(root.hasAsyncCompletions());
+    }
+
+    @Test
+    void cachedCompletionsIgnoreCase() {
+        CompletionProvider provider = CompletionProvider.cached(() -> Arrays.asList("Notch", "Steve"), 1, TimeUnit.MINUTES);
+        assertEquals(Collections.singletonList("Notch"), provider.complete(null, "NO"));
+    }
+
+    @Test
+    void assignsPermissionsAndCooldowns() {
+        CommandNode sell = CommandNode.literal("sell").cooldown(5, TimeUnit.SECONDS);
+        CommandNode amount = CommandNode.argument("amount", CompletionProvider.none()).cooldown(1, TimeUnit.SECONDS);
+        CommandNode root = CommandNode.literal("shop").then(sell.then(amount));
+        root.assignPermissions("core");
+        assertEquals("core.shop.sell", sell.getPermission());
+        assertEquals("core.shop.sell", amount.getPermission());
+        assertEquals(2, root.assignCooldowns(0));
+        assertEquals(-1, root.getCooldownIndex());
+        assertEquals(0, sell.getCooldownIndex());
+        assertEquals(1, amount.getCooldownIndex());
+    }
+}
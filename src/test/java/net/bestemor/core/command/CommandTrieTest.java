@@ -0,0 +1,63 @@
+package net.bestemor.core.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTrieTest {
+
+    @Test
+    void completesPrefixInAlphabeticalOrder() {
+        CommandTrie<Integer> trie = new CommandTrie<>(false);
+        trie.put("shop", 1);
+        trie.put("sell", 2);
+        trie.put("set", 3);
+        trie.put("buy", 4);
+        assertEquals(Arrays.asList("sell", "set", "shop"), trie.complete("s"));
+        assertEquals(Arrays.asList("buy", "sell", "set", "shop"), trie.complete(""));
+        assertEquals(Collections.singletonList("set"), trie.complete("set"));
+        assertTrue(trie.complete("x").isEmpty());
+    }
+
+    @Test
+    void putReplacesExistingKey() {
+        CommandTrie<Integer> trie = new CommandTrie<>(false);
+        trie.put("shop", 1);
+        trie.put("shop", 2);
+        assertEquals(2, trie.get("shop"));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void caseSensitive() {
+        CommandTrie<Integer> trie = new CommandTrie<>(false);
+        trie.put("Shop", 1);
+        assertNull(trie.get("shop"));
+        assertEquals(1, trie.get("Shop"));
+        assertTrue(trie.complete("s").isEmpty());
+    }
+
+    @Test
+    void ignoreCaseKeepsOriginalKey() {
+        CommandTrie<Integer> trie = new CommandTrie<>(true);
+        trie.put("Notch", 1);
+        assertEquals(1, trie.get("NOTCH"));
+        assertEquals(Collections.singletonList("Notch"), trie.complete("no"));
+    }
+
+    @Test
+    void removeKeepsLongerKeys() {
+        CommandTrie<Integer> trie = new CommandTrie<>(false);
+        trie.put("set", 1);
+        trie.put("settings", 2);
+        trie.remove("set");
+        trie.remove("missing");
+        assertNull(trie.get("set"));
+        assertEquals(2, trie.get("settings"));
+        assertEquals(Collections.singletonList("settings"), trie.complete("se"));
+        assertEquals(1, trie.size());
+    }
+}
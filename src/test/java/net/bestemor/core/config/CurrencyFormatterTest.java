@@ -0,0 +1,69 @@
+package net.bestemor.core.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyFormatterTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestConfig.load(true);
+    }
+
+    @Test
+    void formatsWithGroupingAndTwoDecimals() {
+        CurrencyFormatter formatter = CurrencyFormatter.getDefault();
+        assertEquals("$1,234.50", formatter.format(new BigDecimal("1234.5")));
+        assertEquals("0.00", formatter.formatAmount(BigDecimal.ZERO));
+        assertEquals("0.01", formatter.formatAmount(new BigDecimal("0.005")));
+        assertEquals("-1,000,000.00", formatter.formatAmount(new BigDecimal("-1000000")));
+    }
+
+    @Test
+    void fastPathMatchesLargeAmounts() {
+        CurrencyFormatter formatter = CurrencyFormatter.getDefault();
+        assertEquals("92,233,720,368,547,758.07", formatter.formatAmount(new BigDecimal("92233720368547758.07")));
+        assertEquals("123,456,789,012,345,678,901.00", formatter.formatAmount(new BigDecimal("123456789012345678901")));
+        StringBuilder out = new StringBuilder();
+        formatter.formatCents(Long.MIN_VALUE, out);
+        assertEquals("-92,233,720,368,547,758.08", out.toString());
+    }
+
+    @Test
+    void customSeparators() {
+        CurrencyFormatter formatter = CurrencyFormatter.builder().separators('.', ',').build();
+        assertEquals("1.234,50", formatter.formatAmount(new BigDecimal("1234.50")));
+    }
+
+    @Test
+    void compactNotation() {
+        CurrencyFormatter formatter = CurrencyFormatter.getDefault();
+        assertEquals("$999.99", formatter.formatCompact(new BigDecimal("999.99")));
+        assertEquals("$1.2k", formatter.formatCompact(new BigDecimal("1234")));
+        assertEquals("$1k", formatter.formatCompact(new BigDecimal("1000")));
+        assertEquals("$3.4M", formatter.formatCompact(new BigDecimal("3400000")));
+        assertEquals("$1M", formatter.formatCompact(new BigDecimal("999999")));
+        assertEquals("-1.5B", compactAmount(formatter, "-1500000000"));
+        assertEquals("5,000T", compactAmount(formatter, "5000000000000000"));
+    }
+
+    private static String compactAmount(CurrencyFormatter formatter, String amount) {
+        StringBuilder out = new StringBuilder();
+        formatter.formatCompactAmount(new BigDecimal(amount), out);
+        return out.toString();
+    }
+
+    @Test
+    void symbolAfterAmount() {
+        TestConfig.load(false);
+        try {
+            assertEquals("1.00$", CurrencyFormatter.getDefault().format(BigDecimal.ONE));
+        } finally {
+            TestConfig.load(true);
+        }
+    }
+}
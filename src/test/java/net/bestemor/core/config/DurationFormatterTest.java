@@ -0,0 +1,61 @@
+package net.bestemor.core.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurationFormatterTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestConfig.load(true);
+    }
+
+    @Test
+    void defaultUsesMinutes() {
+        DurationFormatter formatter = DurationFormatter.getDefault();
+        assertEquals("1 day 2 hours 3 minutes", formatter.format(86400 + 7200 + 180 + 59));
+        assertEquals("less than a minute", formatter.format(59));
+        assertEquals("less than a minute", formatter.format(-10));
+        assertEquals("never", formatter.formatUntil(null));
+        assertEquals("never", formatter.formatUntil(Instant.EPOCH));
+    }
+
+    @Test
+    void timeLeftHasNoTrailingSpace() {
+        assertEquals("1 day", ConfigManager.getTimeLeft(Instant.now().plusSeconds(86400 + 30)));
+    }
+
+    @Test
+    void skipsZeroUnitsWithoutTrailingSeparator() {
+        DurationFormatter formatter = DurationFormatter.builder().separator(", ").build();
+        assertEquals("1 day", formatter.format(86400));
+        assertEquals("1 day, 5 minutes", formatter.format(86400 + 300));
+        assertEquals("2 hours", formatter.format(7200 + 30));
+    }
+
+    @Test
+    void maxUnitsKeepsLargestUnits() {
+        DurationFormatter formatter = DurationFormatter.builder().seconds().separator(", ").maxUnits(2).build();
+        assertEquals("1 day, 1 hour", formatter.format(86400 + 3600 + 60 + 1));
+        assertEquals("1 minute, 1 second", formatter.format(61));
+        assertThrows(IllegalArgumentException.class, () -> DurationFormatter.builder().maxUnits(0));
+    }
+
+    @Test
+    void secondsGranularity() {
+        DurationFormatter formatter = DurationFormatter.builder().seconds().build();
+        assertEquals("0 seconds", formatter.format(0));
+        assertEquals("1 hour 2 seconds", formatter.format(3602));
+    }
+
+    @Test
+    void formatAllReusesBuffer() {
+        String[] out = new String[3];
+        DurationFormatter.getDefault().formatAll(new long[]{60, 3600, 30}, out);
+        assertArrayEquals(new String[]{"1 minute", "1 hour", "less than a minute"}, out);
+    }
+}
@@ -0,0 +1,45 @@
+package net.bestemor.core.config;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/** Sets up a server stub and a config with english units for formatter tests */
+final class TestConfig {
+
+    private TestConfig() {}
+
+    static void load(boolean currencyBefore) {
+        if (Bukkit.getServer() == null) {
+            Logger logger = Logger.getLogger("BestemorCore");
+            Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class[]{Server.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getLogger": return logger;
+                    case "getName": return "Test";
+                    case "getVersion": return "test (MC: 1.18.2)";
+                    case "getBukkitVersion": return "1.18.2-R0.1-SNAPSHOT";
+                    default: return null;
+                }
+            }));
+        }
+
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("time.day", "day");
+        config.set("time.days", "days");
+        config.set("time.hour", "hour");
+        config.set("time.hours", "hours");
+        config.set("time.minute", "minute");
+        config.set("time.minutes", "minutes");
+        config.set("time.second", "second");
+        config.set("time.seconds", "seconds");
+        config.set("time.never", "never");
+        config.set("time.less_than_a_minute", "less than a minute");
+        config.set("currency", "$");
+        config.set("currency_before", currencyBefore);
+        ConfigManager.setConfig(config);
+        ConfigManager.clearCache();
+    }
+}
@@ -0,0 +1,103 @@
+package net.bestemor.core.menu;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickLimiterTest {
+
+    private static final long TICK = TimeUnit.SECONDS.toNanos(1) / 20;
+
+    private final UUID player = UUID.randomUUID();
+    private ClickLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ClickLimiter();
+        limiter.setEnabled(true);
+        limiter.setCapacity(3);
+        limiter.setRefillRate(20);
+    }
+
+    @Test
+    void disabledByDefault() {
+        ClickLimiter limiter = new ClickLimiter();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryClick(player, 0, 0));
+        }
+        assertEquals(0, limiter.getSuppressed());
+    }
+
+    @Test
+    void allowsBurstThenRefills() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryClick(player, i, 0));
+        }
+        assertFalse(limiter.tryClick(player, 3, TICK - 1));
+        assertTrue(limiter.tryClick(player, 3, TICK));
+        assertFalse(limiter.tryClick(player, 4, TICK));
+        assertEquals(2, limiter.getSuppressed());
+    }
+
+    @Test
+    void bucketsArePerPlayer() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryClick(player, i, 0));
+        }
+        assertTrue(limiter.tryClick(UUID.randomUUID(), 0, 0));
+    }
+
+    @Test
+    void removeResetsBucket() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryClick(player, i, 0));
+        }
+        limiter.remove(player);
+        assertTrue(limiter.tryClick(player, 0, 0));
+    }
+
+    @Test
+    void slotInterval() {
+        limiter.setCapacity(10);
+        limiter.setSlotInterval(200, TimeUnit.MILLISECONDS);
+        long interval = TimeUnit.MILLISECONDS.toNanos(200);
+        assertTrue(limiter.tryClick(player, 5, 0));
+        assertFalse(limiter.tryClick(player, 5, interval - 1));
+        assertTrue(limiter.tryClick(player, 5, interval));
+    }
+
+    @Test
+    void slotIntervalIsPerSlot() {
+        limiter.setCapacity(10);
+        limiter.setSlotInterval(200, TimeUnit.MILLISECONDS);
+        long interval = TimeUnit.MILLISECONDS.toNanos(200);
+        assertTrue(limiter.tryClick(player, 5, 0));
+        assertTrue(limiter.tryClick(player, 6, 1));
+        assertFalse(limiter.tryClick(player, 5, 2));
+        assertFalse(limiter.tryClick(player, 6, 3));
+        assertTrue(limiter.tryClick(player, 5, interval));
+        assertTrue(limiter.tryClick(player, 120, 0));
+        assertFalse(limiter.tryClick(player, 120, 1));
+        assertTrue(limiter.tryClick(player, -999, 0));
+        assertTrue(limiter.tryClick(player, -999, 1));
+    }
+
+    @Test
+    void highRefillRateIsClamped() {
+        limiter.setRefillRate(Integer.MAX_VALUE);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryClick(player, i, 0));
+        }
+        assertTrue(limiter.tryClick(player, 3, 1));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> limiter.setCapacity(0));
+        assertThrows(IllegalArgumentException.class, () -> limiter.setRefillRate(0));
+    }
+}
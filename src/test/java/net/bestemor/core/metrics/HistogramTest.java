@@ -0,0 +1,95 @@
+package net.bestemor.core.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    private Histogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        Metrics.setEnabled(true);
+        histogram = new Histogram("test_seconds", "Test histogram");
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.setEnabled(false);
+    }
+
+    @Test
+    void emptyHasNoQuantile() {
+        assertEquals(-1, histogram.getQuantileBound(0.5));
+        assertEquals("0", histogram.summary());
+    }
+
+    @Test
+    void quantileBounds() {
+        for (int i = 0; i < 99; i++) {
+            histogram.record(40_000);
+        }
+        histogram.record(2_000_000_000L);
+        assertEquals(100, histogram.getCount());
+        assertEquals(50_000, histogram.getQuantileBound(0.5));
+        assertEquals(50_000, histogram.getQuantileBound(0.99));
+        assertEquals(Long.MAX_VALUE, histogram.getQuantileBound(1));
+    }
+
+    @Test
+    void boundsAreInclusive() {
+        histogram.record(10_000);
+        histogram.record(10_001);
+        assertEquals(10_000, histogram.getQuantileBound(0.5));
+        assertEquals(50_000, histogram.getQuantileBound(1));
+    }
+
+    @Test
+    void ignoredWhileDisabled() {
+        Metrics.setEnabled(false);
+        histogram.record(1_000);
+        histogram.stop(Metrics.start());
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    void zeroIsAValidStartTime() {
+        histogram.stop(0);
+        assertEquals(1, histogram.getCount());
+        histogram.stop(Metrics.DISABLED);
+        assertEquals(1, histogram.getCount());
+    }
+
+    @Test
+    void resetClearsBucketsAndSum() {
+        histogram.record(1_000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSumNanos());
+    }
+
+    @Test
+    void prometheusBucketsAreCumulative() {
+        histogram.record(200_000);
+        histogram.record(2_000_000_000L);
+        StringBuilder out = new StringBuilder();
+        histogram.writePrometheus(out);
+        String text = out.toString();
+        assertTrue(text.contains("test_seconds_bucket{le=\"0.0001\"} 0\n"), text);
+        assertTrue(text.contains("test_seconds_bucket{le=\"0.00025\"} 1\n"), text);
+        assertTrue(text.contains("test_seconds_bucket{le=\"1.0\"} 1\n"), text);
+        assertTrue(text.contains("test_seconds_bucket{le=\"+Inf\"} 2\n"), text);
+        assertTrue(text.contains("test_seconds_sum 2.0002\n"), text);
+        assertTrue(text.contains("test_seconds_count 2\n"), text);
+    }
+
+    @Test
+    void registryReturnsExistingMetric() {
+        Histogram first = Metrics.histogram("bestemorcore_test_registry_seconds", "Test");
+        assertSame(first, Metrics.histogram("bestemorcore_test_registry_seconds", "Test"));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.counter("bestemorcore_test_registry_seconds", "Test"));
+    }
+}
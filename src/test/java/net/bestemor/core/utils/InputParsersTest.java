@@ -0,0 +1,94 @@
+package net.bestemor.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputParsersTest {
+
+    private static <T> T parse(InputParser<T> parser, String input) {
+        ParseResult<T> result = parser.parse(input);
+        assertTrue(result.isSuccess(), () -> "Expected " + input + " to parse, got " + result.getError());
+        return result.getValue();
+    }
+
+    private static void assertError(InputParser<?> parser, String input, ParseResult.ErrorCode error) {
+        assertEquals(error, parser.parse(input).getError(), input);
+    }
+
+    @Test
+    void integerWithinRange() {
+        assertEquals(42, parse(InputParsers.integer(), " 42 "));
+        assertEquals(-7, parse(InputParsers.integer(), "-7"));
+        assertEquals(Integer.MIN_VALUE, parse(InputParsers.integer(), "-2147483648"));
+        assertError(InputParsers.integer(), "2147483648", ParseResult.ErrorCode.OUT_OF_RANGE);
+        assertError(InputParsers.integer(1, 10), "11", ParseResult.ErrorCode.OUT_OF_RANGE);
+        assertError(InputParsers.integer(), "4.2", ParseResult.ErrorCode.NOT_NUMBER);
+        assertError(InputParsers.integer(), "-", ParseResult.ErrorCode.NOT_NUMBER);
+        assertError(InputParsers.integer(), "  ", ParseResult.ErrorCode.EMPTY);
+    }
+
+    @Test
+    void decimalUsesDot() {
+        assertEquals(new BigDecimal("12.50"), parse(InputParsers.decimal(), "12.50"));
+        assertEquals(0, new BigDecimal("1000").compareTo(parse(InputParsers.decimal(), "1e3")));
+        assertEquals(0, new BigDecimal("0.015").compareTo(parse(InputParsers.decimal(), "1.5E-2")));
+        assertError(InputParsers.decimal(), "12,50", ParseResult.ErrorCode.USE_DOT);
+        assertError(InputParsers.decimal(), "-1", ParseResult.ErrorCode.NEGATIVE);
+        assertError(InputParsers.decimal(), "1e", ParseResult.ErrorCode.NOT_NUMBER);
+        assertError(InputParsers.decimal(), "1e99999", ParseResult.ErrorCode.OUT_OF_RANGE);
+        assertError(InputParsers.decimal(), "NaN", ParseResult.ErrorCode.NOT_NUMBER);
+    }
+
+    @Test
+    void currencyAcceptsGroupsOfThree() {
+        InputParser<BigDecimal> parser = InputParsers.currency(',', '.');
+        assertEquals(new BigDecimal("1250"), parse(parser, "1,250"));
+        assertEquals(new BigDecimal("12345678.5"), parse(parser, "12,345,678.5"));
+        assertEquals(new BigDecimal("1250"), parse(parser, "1250"));
+    }
+
+    @Test
+    void currencyRejectsMisplacedGrouping() {
+        InputParser<BigDecimal> parser = InputParsers.currency(',', '.');
+        for (String input : new String[]{"1,5", "1,,0", "1234,567", "1,2345", "1,000,00", ",100", "100,", "1.5,0"}) {
+            assertError(parser, input, ParseResult.ErrorCode.NOT_NUMBER);
+        }
+    }
+
+    @Test
+    void currencySuffixes() {
+        InputParser<BigDecimal> parser = InputParsers.currency(',', '.');
+        assertEquals(0, new BigDecimal("1500").compareTo(parse(parser, "1.5k")));
+        assertEquals(0, new BigDecimal("2000000").compareTo(parse(parser, "2 M")));
+        assertEquals(0, new BigDecimal("3000000000000").compareTo(parse(parser, "3t")));
+    }
+
+    @Test
+    void currencyWithLocaleSeparators() {
+        InputParser<BigDecimal> parser = InputParsers.currency('.', ',');
+        assertEquals(new BigDecimal("1250.5"), parse(parser, "1.250,5"));
+        assertError(parser, "1.25", ParseResult.ErrorCode.NOT_NUMBER);
+    }
+
+    @Test
+    void duration() {
+        assertEquals(Duration.ofHours(26), parse(InputParsers.duration(), "1d2h"));
+        assertEquals(Duration.ofMinutes(90), parse(InputParsers.duration(), "1h 30m"));
+        assertEquals(Duration.ofDays(7), parse(InputParsers.duration(), "1W"));
+        assertError(InputParsers.duration(), "10", ParseResult.ErrorCode.INVALID_DURATION);
+        assertError(InputParsers.duration(), "5x", ParseResult.ErrorCode.INVALID_DURATION);
+        assertError(InputParsers.duration(), "h", ParseResult.ErrorCode.INVALID_DURATION);
+    }
+
+    @Test
+    void playerName() {
+        assertEquals("Notch_1", parse(InputParsers.playerName(), " Notch_1 "));
+        assertError(InputParsers.playerName(), "ab", ParseResult.ErrorCode.INVALID_NAME);
+        assertError(InputParsers.playerName(), "seventeen_letters", ParseResult.ErrorCode.INVALID_NAME);
+        assertError(InputParsers.playerName(), "bad-name", ParseResult.ErrorCode.INVALID_NAME);
+    }
+}
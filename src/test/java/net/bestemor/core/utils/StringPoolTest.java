@@ -0,0 +1,33 @@
+package net.bestemor.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+
+    @Test
+    void duplicatesShareInstance() {
+        String first = new String("pool-test-shared");
+        String second = new String("pool-test-shared");
+        assertSame(first, StringPool.intern(first));
+        assertSame(first, StringPool.intern(second));
+        assertNull(StringPool.intern(null));
+    }
+
+    @Test
+    void countsSavedBytesOfDuplicates() {
+        String first = new String("pool-test-bytes");
+        StringPool.intern(first);
+        long hits = StringPool.getHits();
+        long saved = StringPool.getSavedBytes();
+
+        StringPool.intern(first);
+        assertEquals(hits, StringPool.getHits());
+        assertEquals(saved, StringPool.getSavedBytes());
+
+        StringPool.intern(new String("pool-test-bytes"));
+        assertEquals(hits + 1, StringPool.getHits());
+        assertEquals(saved + 40 + 2 * first.length(), StringPool.getSavedBytes());
+    }
+}
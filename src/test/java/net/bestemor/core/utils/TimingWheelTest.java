@@ -0,0 +1,59 @@
+package net.bestemor.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static <T> List<T> advance(TimingWheel<T> wheel, int ticks) {
+        List<T> expired = Collections.emptyList();
+        for (int i = 0; i < ticks; i++) {
+            expired = wheel.advance();
+            if (i < ticks - 1) {
+                assertTrue(expired.isEmpty(), "Expired early at tick " + wheel.getTick());
+            }
+        }
+        return expired;
+    }
+
+    @Test
+    void expiresAfterDelay() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.schedule("a", 3);
+        assertEquals(Collections.singletonList("a"), advance(wheel, 3));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void delaysLongerThanTheWheelWrapAround() {
+        TimingWheel<String> wheel = new TimingWheel<>(4);
+        wheel.schedule("a", 10);
+        assertEquals(Collections.singletonList("a"), advance(wheel, 10));
+    }
+
+    @Test
+    void nonPositiveDelayExpiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(4);
+        wheel.schedule("a", 0);
+        assertEquals(Collections.singletonList("a"), wheel.advance());
+    }
+
+    @Test
+    void cancelledValuesDoNotExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(4);
+        TimingWheel.Timeout<String> timeout = wheel.schedule("a", 2);
+        wheel.schedule("b", 2);
+        timeout.cancel();
+        assertEquals(Collections.singletonList("b"), advance(wheel, 2));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsEmptyWheel() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(0));
+    }
+}